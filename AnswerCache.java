@@ -0,0 +1,95 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * AnswerCache: bounded LRU of rendered chatbot answers.
+ * Keys are (register no, intent, data version). The version is the dataset epoch plus the
+ * student's own version, both bumped from DataStore change events, and it is read before an
+ * answer is rendered. An answer computed while a write lands is therefore filed under the old
+ * version and never served. A write to one student's attendance only drops that student's
+ * entries; announcement answers are shared by every student (register "*").
+ */
+public class AnswerCache implements DataStore.ChangeListener {
+    private static final AnswerCache SHARED = new AnswerCache(Integer.getInteger("classconnect.answerCache.size", 2048));
+    static { DataStore.addChangeListener(SHARED); }
+
+    private final int capacity;
+    private final LinkedHashMap<String, String> entries;
+    private final Map<String, AtomicLong> epochs = new ConcurrentHashMap<>();      // dataset -> version
+    private final Map<String, AtomicLong> studentVersions = new ConcurrentHashMap<>(); // dataset|reg -> version
+    private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+
+    public AnswerCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<String, String> eldest) { return size() > AnswerCache.this.capacity; }
+        };
+    }
+
+    /** The cache used by the chatbot windows, registered for DataStore change events. */
+    public static AnswerCache shared() { return SHARED; }
+
+    /**
+     * Returns the cached answer for (reg, intent) or renders and stores it.
+     * Intents that do not read a dataset (greetings, unknown) are rendered every time.
+     */
+    public String get(String reg, IntentMatcher.Intent intent, Supplier<String> render) {
+        String dataset = datasetOf(intent.kind);
+        if (dataset == null) return render.get();
+        String owner = DataStore.DATASET_ANNOUNCEMENTS.equals(dataset) ? "*" : reg;
+        String key = dataset + "|" + owner + "|" + intent + "@" + version(epochs, dataset) + "." + version(studentVersions, dataset + "|" + owner);
+        synchronized (entries) {
+            String cached = entries.get(key);
+            if (cached != null) { hits.incrementAndGet(); return cached; }
+        }
+        misses.incrementAndGet();
+        String answer = render.get(); // outside the lock: rendering joins DataStore futures
+        synchronized (entries) { entries.put(key, answer); }
+        return answer;
+    }
+
+    @Override public void dataChanged(String dataset, Collection<String> registerNos) {
+        if (registerNos.isEmpty()) {
+            bump(epochs, dataset);
+            synchronized (entries) { entries.keySet().removeIf(k -> k.startsWith(dataset + "|")); }
+            return;
+        }
+        Set<String> prefixes = new HashSet<>();
+        for (String reg : registerNos) {
+            bump(studentVersions, dataset + "|" + reg);
+            prefixes.add(dataset + "|" + reg + "|");
+        }
+        synchronized (entries) {
+            entries.keySet().removeIf(k -> prefixes.contains(k.substring(0, k.indexOf('|', dataset.length() + 1) + 1)));
+        }
+    }
+
+    public long hits() { return hits.get(); }
+    public long misses() { return misses.get(); }
+    public int size() { synchronized (entries) { return entries.size(); } }
+
+    public String stats() {
+        long h = hits(), m = misses();
+        return String.format("answers cached: %d, hits: %d, misses: %d, hit rate: %.1f%%", size(), h, m, h + m == 0 ? 0 : h * 100.0 / (h + m));
+    }
+
+    private static String datasetOf(IntentMatcher.Kind kind) {
+        switch (kind) {
+            case ATTENDANCE: return DataStore.DATASET_ATTENDANCE;
+            case MARKS: return DataStore.DATASET_MARKS;
+            case ANNOUNCEMENTS: return DataStore.DATASET_ANNOUNCEMENTS;
+            default: return null;
+        }
+    }
+
+    private static long version(Map<String, AtomicLong> versions, String key) {
+        AtomicLong v = versions.get(key);
+        return v == null ? 0 : v.get();
+    }
+
+    private static void bump(Map<String, AtomicLong> versions, String key) {
+        versions.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,140 @@
+import java.util.*;
+
+/**
+ * AtRiskIndex: live set of students whose attendance is below the threshold (75% unless
+ * -Dclassconnect.attendance.threshold says otherwise), per subject and overall.
+ * Built from the AttendanceTable on first use, then kept current from DataStore change events:
+ * a save re-evaluates only the students it names, in O(subjects), and each set is kept
+ * sorted worst-first, so listing the at-risk students never scans or sorts the class. Each entry also says how many consecutive classes the
+ * student must attend to get back to the threshold.
+ */
+public class AtRiskIndex implements DataStore.ChangeListener {
+    public static final int THRESHOLD = Integer.getInteger("classconnect.attendance.threshold", 75);
+    private static final AtRiskIndex SHARED = new AtRiskIndex();
+    static { DataStore.addChangeListener(SHARED); }
+
+    private final Bucket overall = new Bucket();                         // at-risk overall
+    private final Map<String, Bucket> bySubject = new HashMap<>();       // subject -> at-risk in that subject
+    private boolean built;
+
+    /** The instance DataStore answers from, registered for change events. */
+    public static AtRiskIndex shared() { return SHARED; }
+
+    /** Attendance standing for one student in one subject, or overall when subject is null. */
+    public static final class Risk implements Comparable<Risk> {
+        public final String registerNo, subject;
+        public final int present, total;
+
+        public Risk(String registerNo, String subject, int present, int total) {
+            this.registerNo = registerNo;
+            this.subject = subject;
+            this.present = present;
+            this.total = total;
+        }
+
+        public double pct() { return total == 0 ? 100 : present * 100.0 / total; }
+        public boolean atRisk() { return total > 0 && present * 100L < (long) THRESHOLD * total; }
+        /** Classes in a row needed to reach the threshold: smallest x with (present + x) / (total + x) >= threshold. */
+        public int classesNeeded() { return AtRiskIndex.classesNeeded(present, total); }
+
+        // lowest percentage first, so the list reads worst-off first
+        @Override public int compareTo(Risk o) {
+            int c = Double.compare(pct(), o.pct());
+            return c != 0 ? c : registerNo.compareTo(o.registerNo);
+        }
+
+        @Override public String toString() { return String.format("%s %.1f%% (%d/%d), needs %d", registerNo, pct(), present, total, classesNeeded()); }
+    }
+
+    public static int classesNeeded(int present, int total) {
+        long deficit = (long) THRESHOLD * total - 100L * present;
+        if (deficit <= 0) return 0;
+        if (THRESHOLD >= 100) return Integer.MAX_VALUE; // 100% cannot be regained once a class is missed
+        return (int) ((deficit + (100 - THRESHOLD) - 1) / (100 - THRESHOLD));
+    }
+
+    /** The overall entry for one student's attendance (summed over subjects), at risk or not. */
+    public static Risk overall(String reg, DataStore.Attendance a) {
+        int present = 0, total = 0;
+        for (Map.Entry<String, Integer> e : a.totalPerSubject.entrySet()) {
+            total += e.getValue();
+            present += a.presentPerSubject.getOrDefault(e.getKey(), 0);
+        }
+        return new Risk(reg, null, present, total);
+    }
+
+    // ---------------- Queries ----------------
+    /** At-risk students for one subject, or overall when subject is null; worst first. */
+    public synchronized List<Risk> atRisk(String subject) {
+        ensureBuilt();
+        Bucket b = subject == null ? overall : bySubject.get(subject);
+        return b == null ? new ArrayList<>() : new ArrayList<>(b.ordered);
+    }
+
+    public synchronized int count(String subject) {
+        ensureBuilt();
+        Bucket b = subject == null ? overall : bySubject.get(subject);
+        return b == null ? 0 : b.byReg.size();
+    }
+
+    // ---------------- Maintenance ----------------
+    @Override public void dataChanged(String dataset, Collection<String> registerNos) {
+        if (!DataStore.DATASET_ATTENDANCE.equals(dataset)) return;
+        synchronized (this) {
+            if (!built) return; // the first query builds from whatever is current
+            if (registerNos.isEmpty()) { built = false; return; }
+            for (String reg : registerNos) update(reg, DataStore.getAttendance(reg));
+        }
+    }
+
+    private void ensureBuilt() {
+        if (built) return;
+        overall.clear();
+        bySubject.clear();
+        AttendanceTable t = DataStore.getAttendanceTable();
+        List<String> subjects = t.subjects();
+        for (int ord = 0; ord < t.size(); ord++) {
+            int present = 0, total = 0;
+            String reg = t.register(ord);
+            for (int s = 0; s < subjects.size(); s++) {
+                if (!t.hasTotal(ord, s)) continue;
+                int p = Math.max(0, t.present(ord, s)), n = t.total(ord, s);
+                put(subjects.get(s), new Risk(reg, subjects.get(s), p, n));
+                present += p;
+                total += n;
+            }
+            put(null, new Risk(reg, null, present, total));
+        }
+        built = true;
+    }
+
+    private void update(String reg, DataStore.Attendance a) {
+        overall.remove(reg);
+        for (Bucket b : bySubject.values()) b.remove(reg);
+        if (a == null) return;
+        for (Map.Entry<String, Integer> e : a.totalPerSubject.entrySet())
+            put(e.getKey(), new Risk(reg, e.getKey(), a.presentPerSubject.getOrDefault(e.getKey(), 0), e.getValue()));
+        put(null, overall(reg, a));
+    }
+
+    private void put(String subject, Risk r) {
+        Bucket b = subject == null ? overall : bySubject.computeIfAbsent(subject, k -> new Bucket());
+        b.remove(r.registerNo);
+        if (r.atRisk()) b.add(r);
+    }
+
+    /** At-risk entries by register no, plus the same entries kept in worst-first order for listing. */
+    private static final class Bucket {
+        final Map<String, Risk> byReg = new HashMap<>();
+        final TreeSet<Risk> ordered = new TreeSet<>();
+
+        void add(Risk r) { byReg.put(r.registerNo, r); ordered.add(r); }
+
+        void remove(String reg) {
+            Risk old = byReg.remove(reg);
+            if (old != null) ordered.remove(old);
+        }
+
+        void clear() { byReg.clear(); ordered.clear(); }
+    }
+}
@@ -0,0 +1,113 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model for the at-risk list of one subject (or overall), worst first.
+ * Filled from DataStore's AtRiskIndex once per scope; after that a change event re-evaluates
+ * only the students it names and moves just their rows, so a save never rebuilds the list.
+ * Everything that can reach the server in remote mode (the list, names) is fetched off the EDT;
+ * cells are painted from what the model already holds.
+ */
+public class AtRiskTableModel extends AbstractTableModel implements DataStore.ChangeListener {
+    private static final String[] COLUMNS = {"Register No", "Name", "Attendance", "Present / Total", "Classes Needed"};
+
+    private final List<AtRiskIndex.Risk> rows = new ArrayList<>();          // sorted worst first
+    private final Map<String, AtRiskIndex.Risk> byReg = new HashMap<>();
+    private final Map<String, String> names = new ConcurrentHashMap<>(); // filled off the EDT
+    private volatile String subject;                                        // null = overall
+
+    /** Switches to another subject (null = overall) and reloads the list from the index in a SwingWorker. EDT only. */
+    public void show(String subject) {
+        this.subject = subject;
+        new SwingWorker<List<AtRiskIndex.Risk>, Void>() {
+            @Override protected List<AtRiskIndex.Risk> doInBackground() {
+                List<AtRiskIndex.Risk> risks = DataStore.getAtRiskStudents(subject);
+                for (AtRiskIndex.Risk r : risks) cacheName(r.registerNo);
+                return risks;
+            }
+            @Override protected void done() {
+                if (!Objects.equals(subject, AtRiskTableModel.this.subject)) return; // a newer scope is loading
+                rows.clear();
+                byReg.clear();
+                try { for (AtRiskIndex.Risk r : get()) { rows.add(r); byReg.put(r.registerNo, r); } }
+                catch (Exception ex) { ex.printStackTrace(); }
+                Collections.sort(rows);
+                fireTableDataChanged();
+            }
+        }.execute();
+    }
+
+    public String subject() { return subject; }
+
+    @Override public int getRowCount() { return rows.size(); }
+    @Override public int getColumnCount() { return COLUMNS.length; }
+    @Override public String getColumnName(int col) { return COLUMNS[col]; }
+    @Override public boolean isCellEditable(int row, int col) { return false; }
+
+    @Override public Object getValueAt(int row, int col) {
+        AtRiskIndex.Risk r = rows.get(row);
+        switch (col) {
+            case 0: return r.registerNo;
+            case 1: return names.getOrDefault(r.registerNo, "");
+            case 2: return String.format("%.1f%%", r.pct());
+            case 3: return r.present + " / " + r.total;
+            default: return r.classesNeeded();
+        }
+    }
+
+    // re-evaluated on the notifying thread; only the rows of the named students change on the EDT
+    @Override public void dataChanged(String dataset, Collection<String> registerNos) {
+        if (!DataStore.DATASET_ATTENDANCE.equals(dataset)) return;
+        String subj = subject;
+        if (registerNos.isEmpty() || registerNos.size() > 64) {
+            SwingUtilities.invokeLater(() -> { if (Objects.equals(subj, subject)) show(subj); });
+            return;
+        }
+        Map<String, AtRiskIndex.Risk> fresh = new LinkedHashMap<>(); // reg -> new entry, null when no longer at risk
+        for (String reg : registerNos) {
+            AtRiskIndex.Risk r = risk(reg, subj);
+            if (r != null) cacheName(reg);
+            fresh.put(reg, r);
+        }
+        SwingUtilities.invokeLater(() -> {
+            if (!Objects.equals(subj, subject)) return; // the scope changed meanwhile and show() reloaded
+            for (Map.Entry<String, AtRiskIndex.Risk> e : fresh.entrySet()) update(e.getKey(), e.getValue());
+        });
+    }
+
+    // off the EDT: getStudentByRegister is an HTTP call in remote mode
+    private void cacheName(String reg) {
+        if (names.containsKey(reg)) return;
+        DataStore.Student s = DataStore.getStudentByRegister(reg);
+        names.put(reg, s == null || s.name == null ? "" : s.name);
+    }
+
+    private static AtRiskIndex.Risk risk(String reg, String subject) {
+        DataStore.Attendance a = DataStore.getAttendance(reg);
+        if (a == null) return null;
+        AtRiskIndex.Risk r;
+        if (subject == null) r = AtRiskIndex.overall(reg, a);
+        else {
+            Integer total = a.totalPerSubject.get(subject);
+            if (total == null) return null;
+            r = new AtRiskIndex.Risk(reg, subject, a.presentPerSubject.getOrDefault(subject, 0), total);
+        }
+        return r.atRisk() ? r : null;
+    }
+
+    private void update(String reg, AtRiskIndex.Risk r) {
+        AtRiskIndex.Risk old = byReg.remove(reg);
+        if (old != null) {
+            int at = Collections.binarySearch(rows, old);
+            rows.remove(at);
+            fireTableRowsDeleted(at, at);
+        }
+        if (r == null) return;
+        int at = -Collections.binarySearch(rows, r) - 1;
+        rows.add(at, r);
+        byReg.put(reg, r);
+        fireTableRowsInserted(at, at);
+    }
+}
@@ -0,0 +1,198 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * AttendanceJournal: append-only change log sitting next to the attendance.txt snapshot.
+ * Every save appends one record instead of rewriting the whole file:
+ *   seq|RegisterNo|DM=5/5;DS=4/4;...|crc32
+ * Records carry absolute present/total values, so replaying one twice is harmless.
+ * The first line "#base N" holds the last sequence number already folded into the snapshot.
+ * A torn or corrupted trailing record (crash mid-append) fails its checksum and is skipped.
+ * Records written together by one appendAll are preceded by "#group N": replay applies the N
+ * records only when all of them are intact, so a multi-student write survives a crash whole or not at all.
+ * A group may also carry a note, "seq|!|text|crc", that replay does not apply but remembers (lastNote):
+ * recordSession puts the session's log line there, so a session whose counters reached the journal
+ * can be restored to attendance_log.txt if the crash came before the log was written.
+ * Compaction rotates the live journal to "attendance.journal.old" so saves keep appending to a
+ * fresh file while the snapshot is rewritten; the rotated file is dropped once the snapshot is in place.
+ */
+public class AttendanceJournal {
+    public static final String JOURNAL_FILE = "attendance.journal";
+
+    private final File file;
+    private final File rotated;
+    private FileOutputStream out;
+    private long nextSeq = 1;
+    private long bytes;
+    private String lastNote; // last note seen by replay
+
+    public AttendanceJournal(String path) { this.file = new File(path); this.rotated = new File(path + ".old"); }
+
+    /** Reads every valid record (in order) and hands reg + subject->{present,total} to the consumer. */
+    public synchronized void replay(BiConsumer<String, Map<String, int[]>> apply) {
+        lastNote = null;
+        long last = Math.max(replayFile(rotated, apply), replayFile(file, apply));
+        nextSeq = last + 1;
+        bytes = file.length();
+    }
+
+    private long replayFile(File file, BiConsumer<String, Map<String, int[]>> apply) {
+        long last = 0;
+        if (file.exists()) {
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                String line;
+                int lineNo = 0, groupLeft = 0;
+                List<Record> group = new ArrayList<>(); // records of the open "#group N"
+                boolean groupIntact = true;
+                while ((line = br.readLine()) != null) {
+                    lineNo++;
+                    if (line.isEmpty()) continue;
+                    if (line.startsWith("#")) {
+                        if (groupLeft > 0) System.out.println("DataStore: dropping incomplete write group before " + file.getName() + ":" + lineNo);
+                        groupLeft = 0;
+                        if (line.startsWith("#base ")) last = Math.max(last, parseLong(line.substring(6)));
+                        else if (line.startsWith("#group ")) { groupLeft = (int) parseLong(line.substring(7)); group.clear(); groupIntact = true; }
+                        continue;
+                    }
+                    Record r = parse(line);
+                    if (groupLeft > 0) {
+                        if (r == null) groupIntact = false;
+                        else group.add(r);
+                        if (--groupLeft > 0) continue;
+                        if (!groupIntact) { System.out.println("DataStore: dropping damaged write group ending at " + file.getName() + ":" + lineNo); continue; }
+                        for (Record g : group) apply(g, apply);
+                        last = Math.max(last, group.get(group.size() - 1).seq);
+                        continue;
+                    }
+                    if (r == null) { System.out.println("DataStore: skipping damaged record at " + file.getName() + ":" + lineNo); continue; }
+                    apply(r, apply);
+                    last = Math.max(last, r.seq);
+                }
+                if (groupLeft > 0) System.out.println("DataStore: dropping incomplete write group at the end of " + file.getName());
+            } catch (IOException ex) { ex.printStackTrace(); }
+        }
+        return last;
+    }
+
+    private void apply(Record r, BiConsumer<String, Map<String, int[]>> apply) {
+        if (r.note != null) lastNote = r.note;
+        else apply.accept(r.reg, r.cells);
+    }
+
+    /** The note of the last intact record group read by replay, or null. */
+    public synchronized String lastNote() { return lastNote; }
+
+    private static final class Record {
+        final long seq;
+        final String reg, note;
+        final Map<String, int[]> cells;
+
+        Record(long seq, String reg, Map<String, int[]> cells, String note) { this.seq = seq; this.reg = reg; this.cells = cells; this.note = note; }
+    }
+
+    // one "seq|reg|cells|crc" or "seq|!|note|crc" line, or null when it is torn or fails its checksum
+    private static Record parse(String line) {
+        int cut = line.lastIndexOf('|');
+        if (cut < 0 || crc(line.substring(0, cut)) != parseLong(line.substring(cut + 1))) return null;
+        String body = line.substring(0, cut);
+        int bar = body.indexOf('|');
+        if (bar > 0 && body.startsWith("|!|", bar)) return new Record(parseLong(body.substring(0, bar)), null, null, body.substring(bar + 3));
+        String[] p = body.split("\\|", -1);
+        if (p.length < 3) return null;
+        Map<String, int[]> cells = new LinkedHashMap<>();
+        for (String cell : p[2].split(";")) {
+            int eq = cell.indexOf('='), sl = cell.indexOf('/');
+            if (eq < 0 || sl < eq) continue;
+            cells.put(cell.substring(0, eq), new int[]{ (int) parseLong(cell.substring(eq + 1, sl)), (int) parseLong(cell.substring(sl + 1)) });
+        }
+        return new Record(parseLong(p[0]), p[1], cells, null);
+    }
+
+    /** Appends one record and returns its sequence number. Cost is independent of class size. */
+    public synchronized long append(String reg, Map<String, int[]> cells) throws IOException {
+        return appendAll(Collections.singletonMap(reg, cells), false);
+    }
+
+    public synchronized long appendAll(Map<String, Map<String, int[]>> rows, boolean sync) throws IOException {
+        return appendAll(rows, Collections.emptyList(), sync);
+    }
+
+    /**
+     * Appends one record per student, then one per note, with a single write, framed as one group when
+     * there are several; with sync the data is forced to disk before returning. Returns the sequence
+     * number of the last record.
+     */
+    public synchronized long appendAll(Map<String, Map<String, int[]>> rows, List<String> notes, boolean sync) throws IOException {
+        StringBuilder all = new StringBuilder();
+        if (rows.size() + notes.size() > 1) all.append("#group ").append(rows.size() + notes.size()).append('\n');
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Map<String, int[]>> row : rows.entrySet()) {
+            sb.setLength(0);
+            sb.append(nextSeq++).append('|').append(row.getKey()).append('|');
+            boolean first = true;
+            for (Map.Entry<String, int[]> e : row.getValue().entrySet()) {
+                if (!first) sb.append(';');
+                sb.append(e.getKey()).append('=').append(e.getValue()[0]).append('/').append(e.getValue()[1]);
+                first = false;
+            }
+            String body = sb.toString();
+            all.append(body).append('|').append(crc(body)).append('\n');
+        }
+        for (String note : notes) {
+            String body = (nextSeq++) + "|!|" + note;
+            all.append(body).append('|').append(crc(body)).append('\n');
+        }
+        byte[] rec = all.toString().getBytes(StandardCharsets.UTF_8);
+        if (out == null) out = openForAppend();
+        out.write(rec);
+        out.flush();
+        if (sync) out.getFD().sync();
+        bytes += rec.length;
+        return nextSeq - 1;
+    }
+
+    // a crash can leave a torn last line; start on a fresh line so the next record is not glued to it
+    private FileOutputStream openForAppend() throws IOException {
+        boolean torn = false;
+        if (file.length() > 0) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) { raf.seek(raf.length() - 1); torn = raf.read() != '\n'; }
+        }
+        FileOutputStream o = new FileOutputStream(file, true);
+        if (torn) { o.write('\n'); bytes++; }
+        return o;
+    }
+
+    public synchronized long size() { return bytes; }
+    public synchronized long lastSeq() { return nextSeq - 1; }
+
+    /** Moves the live journal aside and starts a new one based at the last sequence number. */
+    public synchronized void rotate() throws IOException {
+        if (out != null) { out.close(); out = null; }
+        if (rotated.exists() && file.exists()) {
+            // an earlier compaction never finished: keep its records and add ours behind them
+            try (OutputStream o = new FileOutputStream(rotated, true)) { java.nio.file.Files.copy(file.toPath(), o); }
+            if (!file.delete()) throw new IOException("cannot rotate " + file);
+        } else if (file.exists() && !file.renameTo(rotated)) throw new IOException("cannot rotate " + file);
+        byte[] head = ("#base " + lastSeq() + "\n").getBytes(StandardCharsets.UTF_8);
+        try (OutputStream o = new FileOutputStream(file, false)) { o.write(head); }
+        bytes = head.length;
+    }
+
+    /** Called once the snapshot covering the rotated journal has been durably replaced. */
+    public synchronized void dropRotated() {
+        if (rotated.exists() && !rotated.delete()) System.out.println("DataStore: could not delete " + rotated);
+    }
+
+    private static long crc(String s) {
+        CRC32 c = new CRC32();
+        c.update(s.getBytes(StandardCharsets.UTF_8));
+        return c.getValue();
+    }
+
+    private static long parseLong(String s) {
+        try { return Long.parseLong(s.trim()); } catch (Exception e) { return -1; }
+    }
+}
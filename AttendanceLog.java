@@ -0,0 +1,247 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * AttendanceLog: dated per-session attendance, next to the cumulative counters in AttendanceTable.
+ * A session is (date, period, subject); each subject keeps its sessions sorted by date and period,
+ * and each student has two bitsets over those sessions: "held" (marked at all) and "present".
+ * Both bitsets carry a popcount-per-word rank index, so present/held over any range of sessions is
+ * two array reads and two bitCounts, and a per-subject day table turns a date into a session index
+ * in O(1). A term of 300 sessions costs about 100 bytes per student per subject.
+ *
+ * attendance_log.txt is append-only, one line per recorded session:
+ *   2025-10-14|3|DBMS|311124000001,311124000002|311124000003
+ * (date | period | subject | present register nos | absent register nos). Recording the same session
+ * again appends a newer line whose marks replace the earlier ones for the students it lists.
+ * DataStore journals each line with the session's counter changes before appending it here, and
+ * recover() puts back a line the journal has but a crash kept out of this file.
+ */
+public class AttendanceLog {
+    public static final String LOG_FILE = "attendance_log.txt";
+    public static final int MAX_PERIOD = 15;
+    private static final int PERIOD_SLOTS = MAX_PERIOD + 1; // session key = epochDay * PERIOD_SLOTS + period
+
+    private final File file;
+    private FileOutputStream out;
+    private final Map<String, SubjectLog> subjects = new LinkedHashMap<>();
+
+    public AttendanceLog(String path) { this.file = new File(path); }
+
+    /** Replaces the in-memory log with the contents of the file; damaged lines are reported and skipped. */
+    public synchronized void load() {
+        subjects.clear();
+        if (!file.exists()) return;
+        int sessions = 0;
+        try (CsvReader csv = CsvReader.open(file, '|')) {
+            while (csv.next()) {
+                if (csv.isBlank() || csv.startsWith('#')) continue;
+                if (csv.fieldCount() < 4) { csv.warn("expected date|period|subject|present|absent"); continue; }
+                LocalDate date;
+                try { date = LocalDate.parse(csv.string(0)); }
+                catch (DateTimeParseException ex) { csv.warn("bad date " + csv.string(0)); continue; }
+                int period = csv.intField(1, -1);
+                if (period < 0 || period > MAX_PERIOD) { csv.warn("bad period " + csv.string(1)); continue; }
+                Map<String, Boolean> marks = new LinkedHashMap<>();
+                for (String reg : csv.string(3).split(",")) if (!reg.trim().isEmpty()) marks.put(reg.trim(), true);
+                if (csv.fieldCount() > 4) for (String reg : csv.string(4).split(",")) if (!reg.trim().isEmpty()) marks.put(reg.trim(), false);
+                apply(date, period, csv.pooled(2), marks);
+                sessions++;
+            }
+        } catch (IOException ex) { ex.printStackTrace(); }
+        System.out.println("DataStore: Loaded attendance log: " + sessions + " session records.");
+    }
+
+    /**
+     * Appends the session to the file (forced to disk with sync), then applies it in memory.
+     * Returns reg -> {change in present, change in held}, so the caller can keep the cumulative
+     * counters in step: {0, 0} for an unchanged re-mark, {1, 0} for absent -> present, and so on.
+     */
+    public synchronized Map<String, int[]> record(LocalDate date, int period, String subject, Map<String, Boolean> marks, boolean sync) throws IOException {
+        if (period < 0 || period > MAX_PERIOD) throw new IllegalArgumentException("period must be between 0 and " + MAX_PERIOD);
+        write(line(date, period, subject, marks), sync);
+        return apply(date, period, subject, marks);
+    }
+
+    /** The file line for a session, without the line break. */
+    public static String line(LocalDate date, int period, String subject, Map<String, Boolean> marks) {
+        StringBuilder present = new StringBuilder(), absent = new StringBuilder();
+        for (Map.Entry<String, Boolean> e : marks.entrySet()) {
+            StringBuilder sb = Boolean.TRUE.equals(e.getValue()) ? present : absent;
+            if (sb.length() > 0) sb.append(',');
+            sb.append(e.getKey());
+        }
+        return date + "|" + period + "|" + subject + "|" + present + "|" + absent;
+    }
+
+    /** What record() would return for this session, without writing or changing anything. */
+    public synchronized Map<String, int[]> preview(LocalDate date, int period, String subject, Map<String, Boolean> marks) {
+        SubjectLog log = subjects.get(subject);
+        int idx = log == null ? -1 : Arrays.binarySearch(log.keys, 0, log.count, date.toEpochDay() * PERIOD_SLOTS + period);
+        Map<String, int[]> delta = new LinkedHashMap<>();
+        for (Map.Entry<String, Boolean> e : marks.entrySet()) {
+            Row row = idx < 0 ? null : log.rows.get(e.getKey());
+            boolean wasHeld = row != null && row.held.get(idx), wasPresent = row != null && row.present.get(idx);
+            delta.put(e.getKey(), new int[]{ (Boolean.TRUE.equals(e.getValue()) ? 1 : 0) - (wasPresent ? 1 : 0), wasHeld ? 0 : 1 });
+        }
+        return delta;
+    }
+
+    /**
+     * Crash recovery: appends line (a session the journal holds) unless it is already the last line of
+     * the file, and applies it. Appending a line that is already in force changes nothing.
+     */
+    public synchronized void recover(String line) throws IOException {
+        byte[] want = (line + "\n").getBytes(StandardCharsets.UTF_8);
+        if (file.exists() && file.length() >= want.length) {
+            byte[] tail = new byte[want.length];
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) { raf.seek(file.length() - want.length); raf.readFully(tail); }
+            if (Arrays.equals(tail, want)) return;
+        }
+        String[] f = line.split("\\|", -1);
+        Map<String, Boolean> marks = new LinkedHashMap<>();
+        for (String reg : f[3].split(",")) if (!reg.isEmpty()) marks.put(reg, true);
+        for (String reg : f[4].split(",")) if (!reg.isEmpty()) marks.put(reg, false);
+        write(line, true);
+        apply(LocalDate.parse(f[0]), Integer.parseInt(f[1]), f[2], marks);
+        System.out.println("DataStore: restored a session missing from " + file.getName() + ": " + f[0] + " period " + f[1] + " " + f[2]);
+    }
+
+    private void write(String line, boolean sync) throws IOException {
+        if (out == null) {
+            boolean torn = false; // a crash can leave a torn last line; start on a fresh one
+            if (file.length() > 0) {
+                try (RandomAccessFile raf = new RandomAccessFile(file, "r")) { raf.seek(raf.length() - 1); torn = raf.read() != '\n'; }
+            }
+            out = new FileOutputStream(file, true);
+            if (torn) out.write('\n');
+        }
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        if (sync) out.getFD().sync();
+    }
+
+    private Map<String, int[]> apply(LocalDate date, int period, String subject, Map<String, Boolean> marks) {
+        SubjectLog log = subjects.computeIfAbsent(subject, k -> new SubjectLog());
+        int idx = log.session(date.toEpochDay() * PERIOD_SLOTS + period);
+        Map<String, int[]> delta = new LinkedHashMap<>();
+        for (Map.Entry<String, Boolean> e : marks.entrySet()) {
+            Row row = log.rows.computeIfAbsent(e.getKey(), k -> new Row());
+            boolean now = Boolean.TRUE.equals(e.getValue());
+            boolean wasHeld = row.held.get(idx), wasPresent = row.present.get(idx);
+            row.held.set(idx, true);
+            row.present.set(idx, now);
+            delta.put(e.getKey(), new int[]{ (now ? 1 : 0) - (wasPresent ? 1 : 0), wasHeld ? 0 : 1 });
+        }
+        return delta;
+    }
+
+    // ---------------- Queries ----------------
+    /** {present, held} for one student and subject between from and to inclusive (null = open end). */
+    public synchronized int[] count(String reg, String subject, LocalDate from, LocalDate to) {
+        SubjectLog log = subjects.get(subject);
+        Row row = log == null ? null : log.rows.get(reg);
+        if (row == null) return new int[2];
+        int lo = from == null ? 0 : log.sessionsBefore(from.toEpochDay());
+        int hi = to == null ? log.count : log.sessionsBefore(to.toEpochDay() + 1);
+        if (hi <= lo) return new int[2];
+        return new int[]{ row.present.countBelow(hi) - row.present.countBelow(lo), row.held.countBelow(hi) - row.held.countBelow(lo) };
+    }
+
+    /** subject -> {present, held} between from and to for every subject the student has sessions in. */
+    public synchronized Map<String, int[]> counts(String reg, LocalDate from, LocalDate to) {
+        Map<String, int[]> out = new LinkedHashMap<>();
+        for (Map.Entry<String, SubjectLog> e : subjects.entrySet())
+            if (e.getValue().rows.containsKey(reg)) out.put(e.getKey(), count(reg, e.getKey(), from, to));
+        return out;
+    }
+
+    public synchronized int sessionCount(String subject) {
+        SubjectLog log = subjects.get(subject);
+        return log == null ? 0 : log.count;
+    }
+
+    public synchronized boolean isEmpty() { return subjects.isEmpty(); }
+
+    // ---------------- Per-subject session index ----------------
+    private static final class SubjectLog {
+        long[] keys = new long[32]; // sorted session keys
+        int count;
+        final Map<String, Row> rows = new HashMap<>();
+        int firstDay;
+        int[] before; // before[d] = sessions on days before firstDay + d; null when sessions changed
+
+        /** Index of the session with this key, inserting it (and shifting later sessions) if new. */
+        int session(long key) {
+            int i = Arrays.binarySearch(keys, 0, count, key);
+            if (i >= 0) return i;
+            int pos = -(i + 1);
+            if (count == keys.length) keys = Arrays.copyOf(keys, count * 2);
+            System.arraycopy(keys, pos, keys, pos + 1, count - pos);
+            keys[pos] = key;
+            if (pos < count) for (Row r : rows.values()) { r.held.insertGap(pos, count); r.present.insertGap(pos, count); }
+            count++;
+            before = null;
+            return pos;
+        }
+
+        int sessionsBefore(long epochDay) {
+            if (count == 0) return 0;
+            if (before == null) {
+                firstDay = (int) (keys[0] / PERIOD_SLOTS);
+                int lastDay = (int) (keys[count - 1] / PERIOD_SLOTS);
+                before = new int[lastDay - firstDay + 2];
+                int s = 0;
+                for (int d = 0; d < before.length; d++) {
+                    while (s < count && keys[s] / PERIOD_SLOTS < firstDay + d) s++;
+                    before[d] = s;
+                }
+            }
+            long d = epochDay - firstDay;
+            if (d <= 0) return 0;
+            return d >= before.length ? count : before[(int) d];
+        }
+    }
+
+    private static final class Row {
+        final RankBits held = new RankBits(), present = new RankBits();
+    }
+
+    /** Growable bitset with a lazily rebuilt rank index (ones before each 64-bit word). */
+    static final class RankBits {
+        private long[] words = new long[1];
+        private int[] rank; // null = stale
+
+        boolean get(int i) {
+            int w = i >>> 6;
+            return w < words.length && (words[w] & (1L << i)) != 0;
+        }
+
+        void set(int i, boolean v) {
+            int w = i >>> 6;
+            if (w >= words.length) { if (!v) return; words = Arrays.copyOf(words, Math.max(w + 1, words.length * 2)); }
+            long before = words[w];
+            words[w] = v ? before | (1L << i) : before & ~(1L << i);
+            if (words[w] != before) rank = null;
+        }
+
+        /** Number of set bits in [0, i). */
+        int countBelow(int i) {
+            if (rank == null) {
+                rank = new int[words.length + 1];
+                for (int w = 0; w < words.length; w++) rank[w + 1] = rank[w] + Long.bitCount(words[w]);
+            }
+            int w = i >>> 6;
+            if (w >= words.length) return rank[words.length];
+            return rank[w] + Long.bitCount(words[w] & ((1L << i) - 1));
+        }
+
+        /** Moves bits [pos, length) up by one and clears bit pos (a session inserted before existing ones). */
+        void insertGap(int pos, int length) {
+            for (int i = length - 1; i >= pos; i--) set(i + 1, get(i));
+            set(pos, false);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 import java.awt.*;
 import java.util.*;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 public class AttendanceManager extends JFrame {
     private final DefaultListModel<String> regModel = new DefaultListModel<>();
     private final JList<String> regList = new JList<>(regModel);
     private final JTextArea announceBox = new JTextArea(4, 40);
+    private final JTextField searchField = new JTextField(14);
 
     // subjects and fixed total classes
     private final String[] subjects = {"DM", "DS", "DBMS", "DPCO", "OOP", "ESS"};
@@ -23,14 +26,7 @@ public class AttendanceManager extends JFrame {
         setLocationRelativeTo(null);
 
         // Background panel with image
-        JPanel background = new JPanel() {
-            Image bg = new ImageIcon("college_bg.jpeg").getImage();
-            @Override
-            protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                g.drawImage(bg, 0, 0, getWidth(), getHeight(), this);
-            }
-        };
+        JPanel background = new BackgroundPanel("college_bg.jpeg"); // scaled once per resize, not per repaint
         background.setLayout(new GridBagLayout());
         setContentPane(background);
 
@@ -41,12 +37,19 @@ public class AttendanceManager extends JFrame {
         GridBagConstraints c = new GridBagConstraints();
         c.insets = new Insets(6, 6, 6, 6);
 
-        // Left: student list
-        for (String reg : DataStore.getAllRegisterNos()) regModel.addElement(reg);
+        // Left: student list, filled off the EDT (DataStore may still be loading)
+        filterStudents();
         regList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         JPanel left = new JPanel(new BorderLayout());
         left.setOpaque(false);
+        left.add(searchField, BorderLayout.NORTH);
         left.add(new JScrollPane(regList), BorderLayout.CENTER);
+        searchField.setToolTipText("Search by name or register no (e.g. 'kevin jo', 'K J B')");
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { filterStudents(); }
+            public void removeUpdate(DocumentEvent e) { filterStudents(); }
+            public void changedUpdate(DocumentEvent e) { filterStudents(); }
+        });
         left.setBorder(BorderFactory.createTitledBorder(BorderFactory.createLineBorder(Color.WHITE), "Students (Register No)", 0, 0, new Font("Arial", Font.BOLD, 14), Color.WHITE));
 
         // Right: attendance fields
@@ -66,10 +69,15 @@ public class AttendanceManager extends JFrame {
         JButton loadBtn = new JButton("Load Selected");
         JButton saveBtn = new JButton("Save Attendance");
         JButton calcBtn = new JButton("Show Attendance %");
+        JButton periodBtn = new JButton("Mark Whole Period");
+        JButton riskBtn = new JButton("At-Risk Students");
 
         c.gridx = 0; c.gridy = row; right.add(loadBtn, c);
         c.gridx = 1; right.add(saveBtn, c);
         c.gridx = 0; c.gridy = row + 1; right.add(calcBtn, c);
+        c.gridx = 1; right.add(periodBtn, c);
+        c.gridx = 0; c.gridy = row + 2; c.gridwidth = 2; right.add(riskBtn, c);
+        c.gridwidth = 1;
 
         // Announcement panel
         JPanel ann = new JPanel(new BorderLayout());
@@ -113,43 +121,112 @@ public class AttendanceManager extends JFrame {
                     if (val < 0 || val > totalClasses.get(subj)) throw new NumberFormatException();
                     a.presentPerSubject.put(subj, val);
                 }
-DataStore.updateAttendance(reg, a.presentPerSubject, a.totalPerSubject);
-                JOptionPane.showMessageDialog(this, "Attendance updated successfully!");
+                // memory is updated now; the disk write happens on DataStore's writer thread
+                DataStore.updateAttendance(reg, a.presentPerSubject, a.totalPerSubject).whenComplete((ok, err) ->
+                        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, err == null
+                                ? "Attendance updated successfully!" : "Attendance could not be saved: " + reason(err))));
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this, "Enter valid numbers within total classes for each subject.");
             }
         });
 
-        calcBtn.addActionListener(e -> {
-            StringBuilder out = new StringBuilder();
-            for (String reg : DataStore.getAllRegisterNos()) {
-                DataStore.Attendance a = DataStore.getAttendance(reg);
-                out.append(reg).append(":\n");
-                for (String subj : subjects) {
-                    int present = a != null ? a.presentPerSubject.getOrDefault(subj, 0) : 0;
-                    int total = totalClasses.get(subj);
-                    double pct = total == 0 ? 0 : present * 100.0 / total;
-                    out.append(String.format(" %s: %d/%d → %.1f%%\n", subj, present, total, pct));
-                }
-                out.append("\n");
-            }
-            JTextArea ta = new JTextArea(out.toString());
-            ta.setEditable(false);
-            JOptionPane.showMessageDialog(this, new JScrollPane(ta), "Attendance Summary", JOptionPane.INFORMATION_MESSAGE);
-        });
+        calcBtn.addActionListener(e -> showAttendanceReport());
+
+        periodBtn.addActionListener(e -> new PeriodAttendanceDialog(this, subjects).setVisible(true));
+        riskBtn.addActionListener(e -> showAtRiskStudents());
 
         postAnn.addActionListener(e -> {
             String text = announceBox.getText().trim();
             if (text.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter announcement text."); return; }
-            DataStore.addAnnouncement(text);
             announceBox.setText("");
-            JOptionPane.showMessageDialog(this, "Announcement posted.");
+            DataStore.addAnnouncement(text).whenComplete((ok, err) ->
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, err == null
+                            ? "Announcement posted." : "Announcement could not be saved: " + reason(err))));
         });
 
         setVisible(true);
     }
 
+    // class report: a JTable over AttendanceReportModel, so only visible rows are ever computed
+    private void showAttendanceReport() {
+        AttendanceReportModel model = new AttendanceReportModel(subjects);
+        JLabel footer = new JLabel(model.aggregateSummary());
+        model.addTableModelListener(ev -> footer.setText(model.aggregateSummary()));
+
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        JDialog dialog = new JDialog(this, "Attendance Summary", false);
+        dialog.setLayout(new BorderLayout());
+        dialog.add(new JScrollPane(table), BorderLayout.CENTER);
+        dialog.add(footer, BorderLayout.SOUTH);
+        dialog.setSize(900, 560);
+        dialog.setLocationRelativeTo(this);
+
+        DataStore.addChangeListener(model);
+        dialog.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override public void windowClosed(java.awt.event.WindowEvent we) { DataStore.removeChangeListener(model); }
+        });
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        dialog.setVisible(true);
+    }
+
+    // students below the threshold, from DataStore's live index; a change moves only the rows it names
+    private void showAtRiskStudents() {
+        JComboBox<String> scope = new JComboBox<>();
+        scope.addItem("Overall");
+        for (String subj : subjects) scope.addItem(subj);
+        AtRiskTableModel model = new AtRiskTableModel();
+        JLabel footer = new JLabel();
+        model.addTableModelListener(ev -> footer.setText(model.getRowCount() + " students below " + AtRiskIndex.THRESHOLD + "%"
+                + (model.subject() == null ? " overall" : " in " + model.subject())));
+        scope.addActionListener(e -> model.show(scope.getSelectedIndex() == 0 ? null : (String) scope.getSelectedItem()));
+        model.show(null);
+
+        JDialog dialog = new JDialog(this, "At-Risk Students", false);
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.add(new JLabel("Show:"));
+        top.add(scope);
+        dialog.setLayout(new BorderLayout());
+        dialog.add(top, BorderLayout.NORTH);
+        dialog.add(new JScrollPane(new JTable(model)), BorderLayout.CENTER);
+        dialog.add(footer, BorderLayout.SOUTH);
+        dialog.setSize(760, 520);
+        dialog.setLocationRelativeTo(this);
+
+        DataStore.addChangeListener(model);
+        dialog.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override public void windowClosed(java.awt.event.WindowEvent we) { DataStore.removeChangeListener(model); }
+        });
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        dialog.setVisible(true);
+    }
+
+    // filters the student list through DataStore's name index, in a SwingWorker; a placeholder shows meanwhile
+    private void filterStudents() {
+        String q = searchField.getText().trim();
+        if (regModel.isEmpty()) { regModel.addElement("Loading students…"); regList.setEnabled(false); }
+        new SwingWorker<java.util.List<String>, Void>() {
+            @Override protected java.util.List<String> doInBackground() {
+                return new ArrayList<>(q.isEmpty() ? DataStore.getAllRegisterNos() : DataStore.searchStudents(q, 500));
+            }
+            @Override protected void done() {
+                if (!q.equals(searchField.getText().trim())) return; // typed on; a newer search fills the list
+                regModel.clear();
+                try { for (String reg : get()) regModel.addElement(reg); }
+                catch (Exception ex) { ex.printStackTrace(); }
+                regList.setEnabled(true);
+            }
+        }.execute();
+    }
+
+    // what went wrong with a save future, for the message box
+    static String reason(Throwable err) {
+        Throwable cause = err instanceof java.util.concurrent.CompletionException && err.getCause() != null ? err.getCause() : err;
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+
     public static void main(String[] args) {
+        DataStore.startWatching();
         SwingUtilities.invokeLater(AttendanceManager::new);
     }
 }
@@ -0,0 +1,87 @@
+import java.util.*;
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model for the class attendance report.
+ * Nothing is precomputed: JTable asks only for the cells it paints, and each cell is read
+ * straight from the AttendanceTable columns. Per-subject class averages come from the
+ * table's running sums, so a single student's update refreshes one row and the footer
+ * in O(subjects) instead of rebuilding the whole report.
+ */
+public class AttendanceReportModel extends AbstractTableModel implements DataStore.ChangeListener {
+
+    /** One subject cell; sorts by percentage and renders as "present/total  pct%". */
+    public static final class Cell implements Comparable<Cell> {
+        public final int present, total;
+        Cell(int present, int total) { this.present = present; this.total = total; }
+        public double pct() { return total == 0 ? 0 : present * 100.0 / total; }
+        @Override public int compareTo(Cell o) { return Double.compare(pct(), o.pct()); }
+        @Override public String toString() { return String.format("%d/%d  %.1f%%", present, total, pct()); }
+    }
+
+    private final String[] subjects;
+    private final String[] regs;
+    private final Map<String, Integer> rowOf = new HashMap<>();
+
+    public AttendanceReportModel(String[] subjects) {
+        this.subjects = subjects;
+        this.regs = DataStore.getAllRegisterNos().toArray(new String[0]);
+        for (int i = 0; i < regs.length; i++) rowOf.put(regs[i], i);
+    }
+
+    @Override public int getRowCount() { return regs.length; }
+    @Override public int getColumnCount() { return subjects.length + 2; }
+
+    @Override public String getColumnName(int col) {
+        if (col == 0) return "Register No";
+        return col <= subjects.length ? subjects[col - 1] : "Overall";
+    }
+
+    @Override public Class<?> getColumnClass(int col) { return col == 0 ? String.class : Cell.class; }
+
+    @Override public Object getValueAt(int row, int col) {
+        if (col == 0) return regs[row];
+        AttendanceTable table = DataStore.getAttendanceTable(); // may be swapped by a hot reload
+        int ord = table.ordinal(regs[row]);
+        if (col <= subjects.length) {
+            int s = table.subjectOrdinal(subjects[col - 1]);
+            return ord < 0 || s < 0 ? new Cell(0, 0) : new Cell(table.present(ord, s), table.total(ord, s));
+        }
+        int present = 0, total = 0;
+        for (String subj : subjects) {
+            int s = table.subjectOrdinal(subj);
+            if (ord < 0 || s < 0) continue;
+            present += table.present(ord, s);
+            total += table.total(ord, s);
+        }
+        return new Cell(present, total);
+    }
+
+    /** Class-wide averages per subject, read from the running sums. */
+    public String aggregateSummary() {
+        AttendanceTable table = DataStore.getAttendanceTable();
+        StringBuilder sb = new StringBuilder("Class average — ");
+        long allPresent = 0, allTotal = 0;
+        for (String subj : subjects) {
+            int s = table.subjectOrdinal(subj);
+            long p = s < 0 ? 0 : table.classPresent(s), t = s < 0 ? 0 : table.classTotal(s);
+            allPresent += p;
+            allTotal += t;
+            sb.append(String.format("%s: %.1f%%   ", subj, t == 0 ? 0 : p * 100.0 / t));
+        }
+        sb.append(String.format("Overall: %.1f%%", allTotal == 0 ? 0 : allPresent * 100.0 / allTotal));
+        return sb.toString();
+    }
+
+    @Override public void dataChanged(String dataset, Collection<String> registerNos) {
+        if (!DataStore.DATASET_ATTENDANCE.equals(dataset)) return;
+        SwingUtilities.invokeLater(() -> {
+            if (registerNos.isEmpty() || registerNos.size() > 64) fireTableRowsUpdated(0, Math.max(regs.length - 1, 0));
+            else for (String reg : registerNos) {
+                Integer row = rowOf.get(reg);
+                if (row != null) fireTableRowsUpdated(row, row);
+            }
+        });
+    }
+}
@@ -0,0 +1,175 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * AttendanceTable: columnar attendance store used behind DataStore.
+ * Register numbers are mapped to dense student ordinals and subjects to column ordinals.
+ * Present/total counts live in flat int[] columns (one pair of columns per subject),
+ * so a class of N students costs 2 ints per subject instead of two boxed HashMaps each.
+ * A cell value of -1 means "never set" (the subject is absent from that student's view).
+ * Class-wide sums per subject are kept up to date on every write, so class averages are O(1).
+ * Threading: cell writes for different students may run in parallel (the sums are atomic); adding
+ * a student or subject must be serialized by the caller (DataStore's attendance gate). Readers take
+ * no lock: the arrays are published together as one Layout through a volatile field, and a new
+ * ordinal is published only after the layout that holds it, so a reader never finds a column or
+ * row that is not there yet (a cell it reads may be a moment old).
+ */
+public class AttendanceTable {
+    private static final int UNSET = -1;
+
+    /** Shape of the table: replaced, never resized in place, when a student or subject is added. */
+    private static final class Layout {
+        final String[] regs;                 // ordinal -> reg
+        final int size;
+        final List<String> subjects;         // column -> subject, unmodifiable
+        final int[][] present, total;
+        final AtomicLongArray sumPresent, sumTotal; // running class aggregates per subject
+
+        Layout(String[] regs, int size, List<String> subjects, int[][] present, int[][] total,
+               AtomicLongArray sumPresent, AtomicLongArray sumTotal) {
+            this.regs = regs; this.size = size; this.subjects = subjects;
+            this.present = present; this.total = total;
+            this.sumPresent = sumPresent; this.sumTotal = sumTotal;
+        }
+
+        Layout withSize(String[] regs, int size, int[][] present, int[][] total) {
+            return new Layout(regs, size, subjects, present, total, sumPresent, sumTotal);
+        }
+    }
+
+    private final Map<String, Integer> studentOrd = new ConcurrentHashMap<>(); // reg -> ordinal
+    private final Map<String, Integer> subjectOrd = new ConcurrentHashMap<>(); // subject -> column
+    private volatile Layout layout = new Layout(new String[64], 0, Collections.emptyList(),
+            new int[0][], new int[0][], new AtomicLongArray(0), new AtomicLongArray(0));
+
+    // ---------------- Ordinals ----------------
+    public int size() { return layout.size; }
+    public String register(int ord) { return layout.regs[ord]; }
+
+    /** Returns the ordinal for reg, or -1 when the student has no attendance row. */
+    public int ordinal(String reg) {
+        Integer o = studentOrd.get(reg);
+        return o == null ? -1 : o;
+    }
+
+    public int ensureStudent(String reg) {
+        Integer o = studentOrd.get(reg);
+        if (o != null) return o;
+        Layout l = layout;
+        int ord = l.size;
+        String[] regs = l.regs;
+        int[][] present = l.present, total = l.total;
+        if (ord == regs.length) { // grow into new arrays; the published ones stay as they are
+            int capacity = ord * 2;
+            regs = Arrays.copyOf(regs, capacity);
+            present = new int[present.length][];
+            total = new int[total.length][];
+            for (int s = 0; s < present.length; s++) {
+                present[s] = copyColumn(l.present[s], capacity);
+                total[s] = copyColumn(l.total[s], capacity);
+            }
+        }
+        regs[ord] = reg;
+        for (int s = 0; s < present.length; s++) { present[s][ord] = UNSET; total[s][ord] = UNSET; }
+        layout = l.withSize(regs, ord + 1, present, total);
+        studentOrd.put(reg, ord); // last: whoever finds the ordinal sees the row
+        return ord;
+    }
+
+    public List<String> subjects() { return layout.subjects; }
+
+    /** Returns the column for subj, or -1 when no student has that subject. */
+    public int subjectOrdinal(String subj) {
+        Integer o = subjectOrd.get(subj);
+        return o == null ? -1 : o;
+    }
+
+    public int ensureSubject(String subj) {
+        Integer o = subjectOrd.get(subj);
+        if (o != null) return o;
+        Layout l = layout;
+        int s = l.subjects.size();
+        List<String> subjects = new ArrayList<>(l.subjects);
+        subjects.add(subj);
+        int[][] present = Arrays.copyOf(l.present, s + 1), total = Arrays.copyOf(l.total, s + 1);
+        present[s] = newColumn(l.regs.length);
+        total[s] = newColumn(l.regs.length);
+        layout = new Layout(l.regs, l.size, Collections.unmodifiableList(subjects), present, total,
+                grow(l.sumPresent, s + 1), grow(l.sumTotal, s + 1));
+        subjectOrd.put(subj, s); // last: whoever finds the column sees it
+        return s;
+    }
+
+    // ---------------- Cells ----------------
+    public boolean hasPresent(int ord, int s) { return layout.present[s][ord] != UNSET; }
+    public boolean hasTotal(int ord, int s) { return layout.total[s][ord] != UNSET; }
+    public int present(int ord, int s) { return Math.max(layout.present[s][ord], 0); }
+    public int total(int ord, int s) { return Math.max(layout.total[s][ord], 0); }
+
+    public void setPresent(int ord, int s, int value) {
+        Layout l = layout;
+        int v = Math.max(value, 0);
+        l.sumPresent.addAndGet(s, v - Math.max(l.present[s][ord], 0));
+        l.present[s][ord] = v;
+    }
+    public void setTotal(int ord, int s, int value) {
+        Layout l = layout;
+        int v = Math.max(value, 0);
+        l.sumTotal.addAndGet(s, v - Math.max(l.total[s][ord], 0));
+        l.total[s][ord] = v;
+    }
+    public void set(int ord, int s, int p, int t) { setPresent(ord, s, p); setTotal(ord, s, t); }
+
+    /** Sum of present counts over all students for a subject. */
+    public long classPresent(int s) { return layout.sumPresent.get(s); }
+    /** Sum of total classes over all students for a subject. */
+    public long classTotal(int s) { return layout.sumTotal.get(s); }
+
+    /** True when the student has at least one present value recorded. */
+    public boolean hasAnyPresent(int ord) {
+        Layout l = layout;
+        for (int s = 0; s < l.present.length; s++) if (l.present[s][ord] != UNSET) return true;
+        return false;
+    }
+
+    /** Materializes the map-based view that the UI classes consume. */
+    public DataStore.Attendance view(int ord) {
+        Layout l = layout;
+        DataStore.Attendance a = new DataStore.Attendance();
+        for (int s = 0; s < l.present.length; s++) {
+            String subj = l.subjects.get(s);
+            if (l.present[s][ord] != UNSET) a.presentPerSubject.put(subj, l.present[s][ord]);
+            if (l.total[s][ord] != UNSET) a.totalPerSubject.put(subj, l.total[s][ord]);
+        }
+        return a;
+    }
+
+    // caller has the table to itself, as for ensureStudent
+    public void clear() {
+        studentOrd.clear();
+        Layout l = layout;
+        layout = new Layout(new String[l.regs.length], 0, l.subjects, l.present, l.total,
+                new AtomicLongArray(l.subjects.size()), new AtomicLongArray(l.subjects.size()));
+    }
+
+    // ---------------- Internals ----------------
+    private static AtomicLongArray grow(AtomicLongArray sums, int length) {
+        AtomicLongArray out = new AtomicLongArray(length);
+        for (int i = 0; i < sums.length(); i++) out.set(i, sums.get(i));
+        return out;
+    }
+
+    private static int[] newColumn(int capacity) {
+        int[] col = new int[capacity];
+        Arrays.fill(col, UNSET);
+        return col;
+    }
+
+    private static int[] copyColumn(int[] col, int capacity) {
+        int old = col.length;
+        int[] out = Arrays.copyOf(col, capacity);
+        Arrays.fill(out, old, capacity, UNSET);
+        return out;
+    }
+}
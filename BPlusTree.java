@@ -0,0 +1,470 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * BPlusTree: single-file, page-based B+tree from String keys to byte[] values.
+ * The file is an array of 4 KB pages. Page 0 is the header (root, page count, free list, key count,
+ * eight longs the owner may use); the others are leaves (sorted keys with their values, chained left
+ * to right for scans), internal nodes (separator keys and child pages), overflow pages (values over
+ * 1 KB, chained) and free pages. Pages are decoded into an LRU cache of at most cachePages pages and
+ * nothing else is held in memory, so heap use depends on the cache size, not on the number of keys.
+ *
+ * Changes stay in cached pages until checkpoint(). A checkpoint writes every dirty page to a side file
+ * (file + ".dw"), syncs it, writes the pages in place and syncs again; opening a file that still has a
+ * complete side file finishes that copy first. The file therefore always holds the last complete
+ * checkpoint, never a torn tree. A dirty page that has to leave the cache forces a checkpoint. Changes
+ * made since the last checkpoint are the owner's to make durable (BTreeStudentStore journals them).
+ */
+public class BPlusTree implements Closeable {
+    public static final int PAGE_SIZE = 4096;
+    public static final int MAX_KEY = 256;     // UTF-8 bytes
+    static final int INLINE_MAX = 1024;        // larger values go to overflow pages
+    private static final int MAGIC = 0x43434254; // "CCBT"
+    private static final int VERSION = 1;
+    private static final byte LEAF = 1, INTERNAL = 2, OVERFLOW = 3, FREE = 4;
+    private static final int OVERFLOW_DATA = PAGE_SIZE - 9; // type, next, length
+
+    private final File file, sideFile;
+    private final RandomAccessFile raf;
+    private final int cachePages;
+    private final LinkedHashMap<Integer, Page> cache = new LinkedHashMap<>(64, 0.75f, true); // LRU order
+    private int root, pageCount, freeHead;
+    private long entries;
+    private final long[] meta = new long[8];
+    private boolean headerDirty;
+    private boolean durable = true;
+    private Runnable onCheckpoint;
+    private long pagesRead, checkpoints;
+
+    /** One decoded page. Leaves use keys/values/next, internal nodes keys/children, overflow pages data/next. */
+    private static final class Page {
+        final int id;
+        final byte type;
+        boolean dirty;
+        final List<String> keys = new ArrayList<>();
+        final List<Value> values = new ArrayList<>();
+        final List<Integer> children = new ArrayList<>(); // keys.size() + 1 entries
+        int next;                                         // leaf: right sibling; overflow/free: next page (0 = none)
+        byte[] data;
+
+        Page(int id, byte type) { this.id = id; this.type = type; }
+    }
+
+    /** A leaf value: the bytes themselves, or the first of its overflow pages and its length. */
+    private static final class Value {
+        final byte[] inline;
+        final int overflow, length;
+
+        Value(byte[] inline, int overflow, int length) {
+            this.inline = inline;
+            this.overflow = overflow;
+            this.length = length;
+        }
+    }
+
+    private static final class Split {
+        final String key; // first key of the new right page
+        final int right;
+
+        Split(String key, int right) { this.key = key; this.right = right; }
+    }
+
+    /** Opens the file, creating an empty tree if it is new, and completes an interrupted checkpoint. */
+    public BPlusTree(File file, int cachePages) throws IOException {
+        this.file = file;
+        this.sideFile = new File(file.getPath() + ".dw");
+        this.cachePages = Math.max(16, cachePages);
+        raf = new RandomAccessFile(file, "rw");
+        recover();
+        if (raf.length() == 0) {
+            pageCount = 1;
+            root = allocate(LEAF).id;
+            checkpoint();
+        } else readHeader();
+    }
+
+    /** With durable off, checkpoints write pages directly without the side file or syncs (bulk loads into a temp file). */
+    public synchronized BPlusTree durable(boolean on) { durable = on; return this; }
+
+    /** Runs at the end of every checkpoint, when the file matches memory. */
+    public synchronized BPlusTree onCheckpoint(Runnable r) { onCheckpoint = r; return this; }
+
+    public synchronized long meta(int i) { return meta[i]; }
+    public synchronized void setMeta(int i, long v) { meta[i] = v; headerDirty = true; }
+    public synchronized long size() { return entries; }
+    public synchronized long pagesRead() { return pagesRead; }
+    public synchronized long checkpoints() { return checkpoints; }
+    public synchronized int cachedPages() { return cache.size(); }
+
+    // ---------------- Lookups ----------------
+    public synchronized byte[] get(String key) throws IOException {
+        Page p = leafFor(key);
+        int i = Collections.binarySearch(p.keys, key);
+        byte[] v = i < 0 ? null : read(p.values.get(i));
+        trim();
+        return v;
+    }
+
+    /** Every entry in key order. The action must not modify the tree. */
+    public synchronized void forEach(BiConsumer<String, byte[]> action) throws IOException {
+        Page p = page(root);
+        while (p.type == INTERNAL) p = page(p.children.get(0));
+        for (int id = p.id; id != 0; ) {
+            Page leaf = page(id);
+            List<String> keys = new ArrayList<>(leaf.keys);
+            List<byte[]> values = new ArrayList<>(keys.size());
+            for (Value v : leaf.values) values.add(read(v));
+            id = leaf.next;
+            trim(); // a scan touches every leaf but keeps only cachePages of them
+            for (int i = 0; i < keys.size(); i++) action.accept(keys.get(i), values.get(i));
+        }
+    }
+
+    private Page leafFor(String key) throws IOException {
+        Page p = page(root);
+        while (p.type == INTERNAL) p = page(p.children.get(childIndex(p, key)));
+        return p;
+    }
+
+    // separator i is the first key of child i + 1, so an equal key goes right
+    private static int childIndex(Page p, String key) {
+        int i = Collections.binarySearch(p.keys, key);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    private byte[] read(Value v) throws IOException {
+        if (v.inline != null) return v.inline;
+        byte[] out = new byte[v.length];
+        int off = 0;
+        for (int id = v.overflow; id != 0; ) {
+            Page o = page(id);
+            System.arraycopy(o.data, 0, out, off, o.data.length);
+            off += o.data.length;
+            id = o.next;
+        }
+        return out;
+    }
+
+    // ---------------- Updates ----------------
+    /** Inserts or replaces the value for key. */
+    public synchronized void put(String key, byte[] value) throws IOException {
+        if (key.getBytes(StandardCharsets.UTF_8).length > MAX_KEY) throw new IllegalArgumentException("key longer than " + MAX_KEY + " bytes: " + key);
+        Split s = insert(page(root), key, value);
+        if (s != null) {
+            Page r = allocate(INTERNAL);
+            r.children.add(root);
+            r.keys.add(s.key);
+            r.children.add(s.right);
+            root = r.id;
+        }
+        trim();
+    }
+
+    private Split insert(Page p, String key, byte[] value) throws IOException {
+        if (p.type == LEAF) {
+            int i = Collections.binarySearch(p.keys, key);
+            Value v = store(value);
+            if (i >= 0) {
+                release(p.values.get(i));
+                p.values.set(i, v);
+            } else {
+                p.keys.add(-i - 1, key);
+                p.values.add(-i - 1, v);
+                entries++;
+                headerDirty = true;
+            }
+            p.dirty = true;
+            return encodedSize(p) > PAGE_SIZE ? splitLeaf(p) : null;
+        }
+        int c = childIndex(p, key);
+        Split s = insert(page(p.children.get(c)), key, value);
+        if (s == null) return null;
+        p.keys.add(c, s.key);
+        p.children.add(c + 1, s.right);
+        p.dirty = true;
+        return encodedSize(p) > PAGE_SIZE ? splitInternal(p) : null;
+    }
+
+    private Split splitLeaf(Page p) throws IOException {
+        int cut = splitPoint(p);
+        Page right = allocate(LEAF);
+        right.keys.addAll(p.keys.subList(cut, p.keys.size()));
+        right.values.addAll(p.values.subList(cut, p.values.size()));
+        p.keys.subList(cut, p.keys.size()).clear();
+        p.values.subList(cut, p.values.size()).clear();
+        right.next = p.next;
+        p.next = right.id;
+        return new Split(right.keys.get(0), right.id);
+    }
+
+    private Split splitInternal(Page p) throws IOException {
+        int cut = Math.min(splitPoint(p), p.keys.size() - 2); // key at cut moves up; both sides keep a key
+        Page right = allocate(INTERNAL);
+        String up = p.keys.get(cut);
+        right.keys.addAll(p.keys.subList(cut + 1, p.keys.size()));
+        right.children.addAll(p.children.subList(cut + 1, p.children.size()));
+        p.keys.subList(cut, p.keys.size()).clear();
+        p.children.subList(cut + 1, p.children.size()).clear();
+        return new Split(up, right.id);
+    }
+
+    // first entry at which the left half reaches half the bytes; never empties either side
+    private static int splitPoint(Page p) {
+        int total = 0;
+        for (int i = 0; i < p.keys.size(); i++) total += entrySize(p, i);
+        int acc = 0, i = 0;
+        while (i < p.keys.size() - 1 && acc < total / 2) acc += entrySize(p, i++);
+        return Math.max(1, i);
+    }
+
+    private Value store(byte[] value) throws IOException {
+        if (value.length <= INLINE_MAX) return new Value(value, 0, value.length);
+        int first = 0;
+        Page prev = null;
+        for (int off = 0; off < value.length; off += OVERFLOW_DATA) {
+            Page o = allocate(OVERFLOW);
+            o.data = Arrays.copyOfRange(value, off, Math.min(value.length, off + OVERFLOW_DATA));
+            if (prev == null) first = o.id; else prev.next = o.id;
+            prev = o;
+        }
+        return new Value(null, first, value.length);
+    }
+
+    private void release(Value v) throws IOException {
+        for (int id = v.overflow; id != 0; ) {
+            int next = page(id).next;
+            Page f = new Page(id, FREE);
+            f.next = freeHead;
+            f.dirty = true;
+            cache.put(id, f);
+            freeHead = id;
+            headerDirty = true;
+            id = next;
+        }
+    }
+
+    private Page allocate(byte type) throws IOException {
+        int id;
+        if (freeHead != 0) { id = freeHead; freeHead = page(id).next; }
+        else id = pageCount++;
+        Page p = new Page(id, type);
+        p.dirty = true;
+        cache.put(id, p);
+        headerDirty = true;
+        return p;
+    }
+
+    // ---------------- Cache and checkpoints ----------------
+    private Page page(int id) throws IOException {
+        Page p = cache.get(id);
+        if (p != null) return p;
+        byte[] buf = new byte[PAGE_SIZE];
+        raf.seek((long) id * PAGE_SIZE);
+        raf.readFully(buf);
+        pagesRead++;
+        p = decode(id, ByteBuffer.wrap(buf));
+        cache.put(id, p);
+        return p;
+    }
+
+    // only between operations, so no page an operation is still changing can be dropped
+    private void trim() throws IOException {
+        while (cache.size() > cachePages) {
+            Page eldest = cache.values().iterator().next();
+            if (eldest.dirty) checkpoint(); // the file may only ever hold complete checkpoints
+            cache.remove(eldest.id);
+        }
+    }
+
+    /** Writes every changed page (through the side file when durable) and syncs. */
+    public synchronized void checkpoint() throws IOException {
+        List<Page> dirty = new ArrayList<>();
+        for (Page p : cache.values()) if (p.dirty) dirty.add(p);
+        if (!dirty.isEmpty() || headerDirty) {
+            Map<Integer, byte[]> out = new LinkedHashMap<>();
+            out.put(0, encodeHeader());
+            for (Page p : dirty) out.put(p.id, encode(p));
+            if (durable) writeSideFile(out);
+            for (Map.Entry<Integer, byte[]> e : out.entrySet()) {
+                raf.seek((long) e.getKey() * PAGE_SIZE);
+                raf.write(e.getValue());
+            }
+            if (durable) {
+                raf.getFD().sync();
+                Files.delete(sideFile.toPath());
+            }
+            for (Page p : dirty) p.dirty = false;
+            headerDirty = false;
+            checkpoints++;
+        }
+        if (onCheckpoint != null) onCheckpoint.run();
+    }
+
+    @Override public synchronized void close() throws IOException {
+        checkpoint();
+        raf.getFD().sync();
+        raf.close();
+    }
+
+    // side file: count, then (page id, page bytes) per page, then a crc32 of everything before it
+    private void writeSideFile(Map<Integer, byte[]> pages) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(4 + pages.size() * (4 + PAGE_SIZE) + 8);
+        b.putInt(pages.size());
+        for (Map.Entry<Integer, byte[]> e : pages.entrySet()) b.putInt(e.getKey()).put(e.getValue());
+        b.putLong(crc(b.array(), b.position()));
+        try (FileOutputStream out = new FileOutputStream(sideFile)) {
+            out.write(b.array());
+            out.getFD().sync();
+        }
+    }
+
+    private void recover() throws IOException {
+        if (!sideFile.exists()) return;
+        byte[] all = Files.readAllBytes(sideFile.toPath());
+        ByteBuffer b = ByteBuffer.wrap(all);
+        int count = all.length >= 12 ? b.getInt(0) : -1;
+        boolean complete = count >= 0 && all.length == 4 + (long) count * (4 + PAGE_SIZE) + 8
+                && b.getLong(all.length - 8) == crc(all, all.length - 8);
+        if (complete) {
+            for (int i = 0, pos = 4; i < count; i++, pos += 4 + PAGE_SIZE) {
+                raf.seek((long) b.getInt(pos) * PAGE_SIZE);
+                raf.write(all, pos + 4, PAGE_SIZE);
+            }
+            raf.getFD().sync();
+            System.out.println("DataStore: finished an interrupted checkpoint of " + file.getName() + " (" + count + " pages).");
+        } else {
+            System.out.println("DataStore: discarded an incomplete checkpoint of " + file.getName() + "; the file is at the previous one.");
+        }
+        Files.delete(sideFile.toPath());
+    }
+
+    private static long crc(byte[] b, int len) {
+        CRC32 c = new CRC32();
+        c.update(b, 0, len);
+        return c.getValue();
+    }
+
+    // ---------------- Page encoding ----------------
+    // header: magic, version, page size, root, page count, free head, entries, meta[8]
+    private byte[] encodeHeader() {
+        ByteBuffer b = ByteBuffer.allocate(PAGE_SIZE);
+        b.putInt(MAGIC).putInt(VERSION).putInt(PAGE_SIZE).putInt(root).putInt(pageCount).putInt(freeHead).putLong(entries);
+        for (long m : meta) b.putLong(m);
+        return b.array();
+    }
+
+    private void readHeader() throws IOException {
+        byte[] buf = new byte[PAGE_SIZE];
+        raf.seek(0);
+        raf.readFully(buf);
+        ByteBuffer b = ByteBuffer.wrap(buf);
+        if (b.getInt() != MAGIC || b.getInt() != VERSION || b.getInt() != PAGE_SIZE) throw new IOException(file + " is not a ClassConnect B+tree file");
+        root = b.getInt();
+        pageCount = b.getInt();
+        freeHead = b.getInt();
+        entries = b.getLong();
+        for (int i = 0; i < meta.length; i++) meta[i] = b.getLong();
+    }
+
+    private static int keyBytes(String key) { return key.getBytes(StandardCharsets.UTF_8).length; }
+
+    private static int entrySize(Page p, int i) {
+        if (p.type == INTERNAL) return 2 + keyBytes(p.keys.get(i)) + 4;
+        Value v = p.values.get(i);
+        return 2 + keyBytes(p.keys.get(i)) + 4 + (v.inline != null ? v.inline.length : 4);
+    }
+
+    private static int encodedSize(Page p) {
+        int size = 1 + 2 + 4; // type, count, next / first child
+        for (int i = 0; i < p.keys.size(); i++) size += entrySize(p, i);
+        return size;
+    }
+
+    // leaf:     type, count, next, then per entry: key, value length, inline bytes or first overflow page
+    // internal: type, count, child 0, then per key: key, child to its right
+    // overflow: type, next, length, bytes;  free: type, next
+    private static byte[] encode(Page p) {
+        ByteBuffer b = ByteBuffer.allocate(PAGE_SIZE);
+        b.put(p.type);
+        switch (p.type) {
+            case LEAF:
+                b.putShort((short) p.keys.size()).putInt(p.next);
+                for (int i = 0; i < p.keys.size(); i++) {
+                    putKey(b, p.keys.get(i));
+                    Value v = p.values.get(i);
+                    b.putInt(v.length);
+                    if (v.inline != null) b.put(v.inline); else b.putInt(v.overflow);
+                }
+                break;
+            case INTERNAL:
+                b.putShort((short) p.keys.size()).putInt(p.children.get(0));
+                for (int i = 0; i < p.keys.size(); i++) {
+                    putKey(b, p.keys.get(i));
+                    b.putInt(p.children.get(i + 1));
+                }
+                break;
+            case OVERFLOW:
+                b.putInt(p.next).putInt(p.data.length).put(p.data);
+                break;
+            default:
+                b.putInt(p.next);
+        }
+        return b.array();
+    }
+
+    private static Page decode(int id, ByteBuffer b) throws IOException {
+        Page p = new Page(id, b.get());
+        switch (p.type) {
+            case LEAF: {
+                int n = b.getShort();
+                p.next = b.getInt();
+                for (int i = 0; i < n; i++) {
+                    p.keys.add(getKey(b));
+                    int len = b.getInt();
+                    if (len <= INLINE_MAX) {
+                        byte[] v = new byte[len];
+                        b.get(v);
+                        p.values.add(new Value(v, 0, len));
+                    } else p.values.add(new Value(null, b.getInt(), len));
+                }
+                break;
+            }
+            case INTERNAL: {
+                int n = b.getShort();
+                p.children.add(b.getInt());
+                for (int i = 0; i < n; i++) {
+                    p.keys.add(getKey(b));
+                    p.children.add(b.getInt());
+                }
+                break;
+            }
+            case OVERFLOW:
+                p.next = b.getInt();
+                p.data = new byte[b.getInt()];
+                b.get(p.data);
+                break;
+            case FREE:
+                p.next = b.getInt();
+                break;
+            default:
+                throw new IOException("damaged page " + id + " (type " + p.type + ")");
+        }
+        return p;
+    }
+
+    private static void putKey(ByteBuffer b, String key) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        b.putShort((short) k.length).put(k);
+    }
+
+    private static String getKey(ByteBuffer b) {
+        byte[] k = new byte[b.getShort()];
+        b.get(k);
+        return new String(k, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,374 @@
+import java.io.*;
+import java.lang.ref.SoftReference;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * BTreeStudentStore: the StudentStore for -Dclassconnect.store=btree. Each student is one record in
+ * classconnect.db, a BPlusTree keyed by register number: name, marks per IA and subject, attendance per
+ * subject. Lookups read a few pages through the tree's cache (-Dclassconnect.store.cachePages, 256 pages
+ * = 1 MB by default). Only name search needs something per student in memory: its index is built by one
+ * scan the first time a name is looked up.
+ *
+ * The file is built from Internal_marks.csv and attendance.txt the first time and is the attendance store
+ * from then on; attendance.txt is not rewritten. When the marks CSV changes, its rows are imported again
+ * at the next start (attendance is kept, students no longer in the CSV lose their marks).
+ * Saves change cached pages and are journaled through DataStore's WriteBehindQueue; each tree checkpoint
+ * rotates the journal, and opening the store replays what the journal still holds.
+ * Class-wide views (getAttendanceTable) are built by one scan and kept softly, so they can be dropped
+ * under memory pressure.
+ */
+public class BTreeStudentStore implements StudentStore {
+    public static final String DB_FILE = "classconnect.db";
+    private static final int CACHE_PAGES = Integer.getInteger("classconnect.store.cachePages", 256);
+    // header meta slots
+    private static final int META_MARKS_MTIME = 0, META_MARKS_LENGTH = 1, META_MARKS_GEN = 2;
+
+    private final File file;
+    private final AttendanceJournal journal;
+    private final WriteBehindQueue writes;
+    private final CompletableFuture<Void> opened = new CompletableFuture<>();
+    private BPlusTree tree;                     // null if the file could not be opened
+    private long marksGen;                      // the marks import records must carry to count as current
+    private SoftReference<AttendanceTable> table = new SoftReference<>(null);
+    private NameIndex names;                    // built on the first name lookup
+
+    public BTreeStudentStore(File file, AttendanceJournal journal, WriteBehindQueue writes) {
+        this.file = file;
+        this.journal = journal;
+        this.writes = writes;
+    }
+
+    /** One student's record as stored in the tree. */
+    private static final class Record {
+        long gen;                // marks import that last wrote these marks
+        String name = "";
+        final Map<String, Map<String, DataStore.Marks>> marks = new LinkedHashMap<>();
+        final DataStore.Attendance attendance = new DataStore.Attendance();
+
+        boolean hasAttendance() { return !attendance.presentPerSubject.isEmpty() || !attendance.totalPerSubject.isEmpty(); }
+
+        byte[] encode() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeLong(gen);
+                out.writeUTF(name);
+                out.writeShort(marks.size());
+                for (Map.Entry<String, Map<String, DataStore.Marks>> ia : marks.entrySet()) {
+                    out.writeUTF(ia.getKey());
+                    out.writeShort(ia.getValue().size());
+                    for (Map.Entry<String, DataStore.Marks> m : ia.getValue().entrySet()) {
+                        out.writeUTF(m.getKey());
+                        out.writeInt(m.getValue().concept);
+                        out.writeInt(m.getValue().cat);
+                        out.writeInt(m.getValue().total);
+                    }
+                }
+                writeCounts(out, attendance.presentPerSubject);
+                writeCounts(out, attendance.totalPerSubject);
+            } catch (IOException ex) { throw new UncheckedIOException(ex); } // in-memory stream
+            return bytes.toByteArray();
+        }
+
+        static Record decode(byte[] b) {
+            Record r = new Record();
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(b))) {
+                r.gen = in.readLong();
+                r.name = in.readUTF();
+                for (int i = in.readShort(); i > 0; i--) {
+                    Map<String, DataStore.Marks> sub = r.marks.computeIfAbsent(in.readUTF(), k -> new LinkedHashMap<>());
+                    for (int j = in.readShort(); j > 0; j--) sub.put(in.readUTF(), new DataStore.Marks(in.readInt(), in.readInt(), in.readInt()));
+                }
+                readCounts(in, r.attendance.presentPerSubject);
+                readCounts(in, r.attendance.totalPerSubject);
+            } catch (IOException ex) { throw new UncheckedIOException(ex); }
+            return r;
+        }
+
+        private static void writeCounts(DataOutputStream out, Map<String, Integer> counts) throws IOException {
+            out.writeShort(counts.size());
+            for (Map.Entry<String, Integer> e : counts.entrySet()) { out.writeUTF(e.getKey()); out.writeInt(e.getValue()); }
+        }
+
+        private static void readCounts(DataInputStream in, Map<String, Integer> counts) throws IOException {
+            for (int i = in.readShort(); i > 0; i--) counts.put(in.readUTF(), in.readInt());
+        }
+    }
+
+    // ---------------- Open / import ----------------
+    /**
+     * Opens classconnect.db, building it from the CSV files if it does not exist and re-importing marks if
+     * the CSV changed, then replays the journal and hands its last note to afterReplay (before the
+     * checkpoint starts a fresh journal). Called once, by DataStore's marks loader; every other
+     * method waits for it.
+     */
+    public void open(File marksCsv, File attendanceFile, Consumer<String> afterReplay) {
+        try {
+            if (!file.exists()) build(marksCsv, attendanceFile);
+            tree = new BPlusTree(file, CACHE_PAGES);
+            marksGen = tree.meta(META_MARKS_GEN);
+            if (marksCsv.exists() && (tree.meta(META_MARKS_MTIME) != marksCsv.lastModified() || tree.meta(META_MARKS_LENGTH) != marksCsv.length()))
+                importMarks(marksCsv);
+            int[] replayed = {0};
+            journal.replay((reg, cells) -> { putCells(reg, cells); replayed[0]++; });
+            afterReplay.accept(journal.lastNote());
+            tree.onCheckpoint(this::rotateJournal);
+            tree.checkpoint(); // folds the replayed saves into the file and starts a fresh journal
+            System.out.println("DataStore: Opened " + file.getName() + ": " + tree.size() + " students, "
+                    + replayed[0] + " journaled saves replayed.");
+        } catch (IOException | UncheckedIOException ex) {
+            ex.printStackTrace();
+            tree = null;
+        } finally {
+            opened.complete(null);
+        }
+    }
+
+    // bulk load into a temp file (no side file or syncs until the end), then move it into place
+    private void build(File marksCsv, File attendanceFile) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        Files.deleteIfExists(tmp.toPath());
+        tree = new BPlusTree(tmp, CACHE_PAGES).durable(false);
+        importMarks(marksCsv);
+        importAttendance(attendanceFile);
+        tree.close();
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // rows for one student are normally adjacent, so each record is usually read and written once
+    private void importMarks(File csv) throws IOException {
+        long gen = marksGen + 1;
+        int students = 0;
+        if (csv.exists()) try (CsvReader in = CsvReader.open(csv, ',')) {
+            boolean headerSeen = false;
+            String reg = null;
+            Record r = null;
+            while (in.next()) {
+                if (in.isBlank() || in.isComment()) continue;
+                if (!headerSeen && in.fieldEquals(0, "RegisterNo")) { headerSeen = true; continue; }
+                if (in.fieldCount() < 7) { in.warn("expected 7 fields, found " + in.fieldCount()); continue; }
+                String rowReg = in.string(0), name = in.string(1);
+                if (!rowReg.equals(reg)) {
+                    if (r != null) tree.put(reg, r.encode());
+                    reg = rowReg;
+                    r = load(reg);
+                    if (r == null) r = new Record();
+                    if (r.gen != gen) { r.gen = gen; r.name = name; r.marks.clear(); students++; }
+                }
+                if (r.name.isEmpty()) r.name = name;
+                r.marks.computeIfAbsent(in.pooled(2), k -> new LinkedHashMap<>())
+                        .put(in.pooled(3), new DataStore.Marks(in.intField(4, 0), in.intField(5, 0), in.intField(6, 0)));
+            }
+            if (r != null) tree.put(reg, r.encode());
+        }
+        tree.setMeta(META_MARKS_GEN, gen);
+        tree.setMeta(META_MARKS_MTIME, csv.lastModified());
+        tree.setMeta(META_MARKS_LENGTH, csv.length());
+        marksGen = gen;
+        System.out.println("DataStore: Imported marks for " + students + " students into " + file.getName());
+    }
+
+    // one-off, when the file is first built: the parsed table is dropped once its rows are in the tree
+    private void importAttendance(File f) throws IOException {
+        AttendanceTable t = DataStore.readAttendanceFile(f);
+        for (int ord = 0; ord < t.size(); ord++) {
+            Record r = load(t.register(ord));
+            if (r == null) r = new Record();
+            DataStore.Attendance view = t.view(ord);
+            r.attendance.presentPerSubject.putAll(view.presentPerSubject);
+            r.attendance.totalPerSubject.putAll(view.totalPerSubject);
+            tree.put(t.register(ord), r.encode());
+        }
+    }
+
+    // a journal record: absolute values for every subject in the row
+    private void putCells(String reg, Map<String, int[]> cells) {
+        try {
+            Record r = load(reg);
+            if (r == null) r = new Record();
+            for (Map.Entry<String, int[]> e : cells.entrySet()) r.attendance.set(e.getKey(), e.getValue()[0], e.getValue()[1]);
+            tree.put(reg, r.encode());
+        } catch (IOException ex) { throw new UncheckedIOException(ex); }
+    }
+
+    // runs after every checkpoint: the file now holds every save applied so far
+    private void rotateJournal() {
+        try {
+            journal.rotate();
+            journal.dropRotated();
+        } catch (IOException ex) { ex.printStackTrace(); }
+    }
+
+    // ---------------- StudentStore ----------------
+    @Override public DataStore.Student student(String reg) {
+        Record r = current(reg);
+        if (r == null) return null;
+        DataStore.Student s = new DataStore.Student(reg, r.name);
+        for (Map.Entry<String, Map<String, DataStore.Marks>> ia : r.marks.entrySet()) s.iaMarks.put(ia.getKey(), new HashMap<>(ia.getValue()));
+        return s;
+    }
+
+    @Override public DataStore.Marks marks(String reg, String ia, String subject) {
+        Map<String, DataStore.Marks> sub = marksForIA(reg, ia);
+        return sub == null ? null : sub.get(subject);
+    }
+
+    @Override public Map<String, DataStore.Marks> marksForIA(String reg, String ia) {
+        Record r = current(reg);
+        return r == null ? null : r.marks.get(ia);
+    }
+
+    @Override public DataStore.Attendance attendance(String reg) {
+        opened.join();
+        synchronized (this) {
+            Record r = read(reg);
+            return r == null || !r.hasAttendance() ? null : r.attendance;
+        }
+    }
+
+    @Override public CompletableFuture<Void> updateAttendance(String reg, Map<String, Integer> presentMap, Map<String, Integer> totalMap) {
+        opened.join();
+        synchronized (this) {
+            try {
+                // queued under the store lock, so each student's journal order matches apply order
+                return writes.attendance(reg, apply(reg, presentMap, totalMap));
+            } catch (IOException ex) {
+                return failed(ex);
+            }
+        }
+    }
+
+    /**
+     * Applies several saves (totalByReg may be null) and queues them as one journal group, so they
+     * survive a crash all together or not at all; the future completes when they are on disk.
+     */
+    public CompletableFuture<Void> updateAttendanceAll(Map<String, Map<String, Integer>> presentByReg, Map<String, Map<String, Integer>> totalByReg) {
+        return updateAttendanceAll(presentByReg, totalByReg, null);
+    }
+
+    /** As above, with a note (a session log line) journaled in the same group; null for none. */
+    public CompletableFuture<Void> updateAttendanceAll(Map<String, Map<String, Integer>> presentByReg, Map<String, Map<String, Integer>> totalByReg, String note) {
+        opened.join();
+        synchronized (this) {
+            try {
+                Map<String, Map<String, int[]>> rows = new LinkedHashMap<>();
+                for (Map.Entry<String, Map<String, Integer>> e : presentByReg.entrySet())
+                    rows.put(e.getKey(), apply(e.getKey(), e.getValue(), totalByReg == null ? null : totalByReg.get(e.getKey())));
+                return writes.attendanceBatch(rows, note);
+            } catch (IOException ex) {
+                return failed(ex);
+            }
+        }
+    }
+
+    // caller holds the lock; writes the row into the tree and returns it as journal cells
+    private Map<String, int[]> apply(String reg, Map<String, Integer> presentMap, Map<String, Integer> totalMap) throws IOException {
+        if (tree == null) throw new IOException(file + " is not open");
+        Record r = load(reg);
+        if (r == null) r = new Record();
+        DataStore.Attendance a = r.attendance;
+        if (presentMap != null) a.presentPerSubject.putAll(presentMap);
+        if (totalMap != null) a.totalPerSubject.putAll(totalMap);
+        for (String subj : DataStore.DEFAULT_SUBJECTS) a.totalPerSubject.putIfAbsent(subj, DataStore.getDefaultTotal(subj));
+        tree.put(reg, r.encode());
+        AttendanceTable t = table.get();
+        if (t != null) setRow(t, reg, a);
+        return cells(a);
+    }
+
+    private static CompletableFuture<Void> failed(IOException ex) {
+        ex.printStackTrace();
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(ex);
+        return failed;
+    }
+
+    @Override public Set<String> registers() {
+        Set<String> out = new LinkedHashSet<>();
+        scan((reg, r) -> { if (r.gen == marksGen) out.add(reg); });
+        return out;
+    }
+
+    // ---------------- Class-wide ----------------
+    /** Name and register search over every student with marks; built by one scan on first use. */
+    public NameIndex names() {
+        opened.join();
+        synchronized (this) {
+            if (names == null) {
+                NameIndex idx = new NameIndex();
+                scan((reg, r) -> { if (r.gen == marksGen) idx.add(reg, r.name); });
+                names = idx;
+            }
+            return names;
+        }
+    }
+
+    /** Every attendance row as a table, from one scan; reused (and kept current) until memory runs short. */
+    public AttendanceTable attendanceTable() {
+        opened.join();
+        synchronized (this) {
+            AttendanceTable t = table.get();
+            if (t != null) return t;
+            AttendanceTable built = new AttendanceTable();
+            scan((reg, r) -> { if (r.hasAttendance()) setRow(built, reg, r.attendance); });
+            table = new SoftReference<>(built);
+            return built;
+        }
+    }
+
+    /** Writes cached changes into classconnect.db and starts a fresh journal; archive mode's compaction. */
+    public void checkpoint() {
+        opened.join();
+        synchronized (this) {
+            if (tree == null) return;
+            try { tree.checkpoint(); } catch (IOException ex) { ex.printStackTrace(); }
+        }
+    }
+
+    // ---------------- Helpers ----------------
+    private Record current(String reg) {
+        opened.join();
+        synchronized (this) {
+            Record r = read(reg);
+            return r == null || r.gen != marksGen ? null : r; // no marks in the current CSV
+        }
+    }
+
+    // caller holds the lock; read failures are reported and treated as "not found"
+    private Record read(String reg) {
+        try { return tree == null || reg == null ? null : load(reg); }
+        catch (IOException ex) { ex.printStackTrace(); return null; }
+    }
+
+    private Record load(String reg) throws IOException {
+        byte[] b = tree.get(reg);
+        return b == null ? null : Record.decode(b);
+    }
+
+    private void scan(BiConsumer<String, Record> action) {
+        opened.join();
+        synchronized (this) {
+            if (tree == null) return;
+            try { tree.forEach((reg, b) -> action.accept(reg, Record.decode(b))); }
+            catch (IOException ex) { ex.printStackTrace(); }
+        }
+    }
+
+    private static void setRow(AttendanceTable t, String reg, DataStore.Attendance a) {
+        int ord = t.ensureStudent(reg);
+        for (Map.Entry<String, Integer> e : a.presentPerSubject.entrySet()) t.setPresent(ord, t.ensureSubject(e.getKey()), e.getValue());
+        for (Map.Entry<String, Integer> e : a.totalPerSubject.entrySet()) t.setTotal(ord, t.ensureSubject(e.getKey()), e.getValue());
+    }
+
+    // the student's full row for the journal, like DataStore.applyAttendance returns
+    private static Map<String, int[]> cells(DataStore.Attendance a) {
+        Set<String> subjects = new LinkedHashSet<>(a.totalPerSubject.keySet());
+        subjects.addAll(a.presentPerSubject.keySet());
+        Map<String, int[]> cells = new LinkedHashMap<>();
+        for (String subj : subjects) cells.put(subj, new int[]{ a.getPresent(subj), a.getTotal(subj) });
+        return cells;
+    }
+}
@@ -0,0 +1,91 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.concurrent.CompletableFuture;
+import javax.swing.*;
+
+/**
+ * BackgroundPanel: content pane that paints an image stretched to its size.
+ * The scaled copy is rendered once per size (or screen) change into a VolatileImage, or a
+ * compatible BufferedImage where accelerated images are unavailable, so ordinary repaints
+ * (typing over the translucent overlay, hover, caret blink) are a plain unscaled blit instead
+ * of rescaling the full-resolution source every time.
+ * Until ImageAssets has decoded the file, and for good if it is missing or unreadable, the panel
+ * shows its normal background colour.
+ */
+public class BackgroundPanel extends JPanel {
+    private volatile BufferedImage source;
+    private VolatileImage accelerated;
+    private BufferedImage fallback;
+    private int scaledW = -1, scaledH = -1;
+    private GraphicsConfiguration scaledFor;
+
+    public BackgroundPanel(String file) {
+        this(ImageAssets.image(file));
+    }
+
+    public BackgroundPanel(BufferedImage source) {
+        this(CompletableFuture.completedFuture(source));
+    }
+
+    private BackgroundPanel(CompletableFuture<BufferedImage> image) {
+        setOpaque(true);
+        source = image.getNow(null);
+        if (source == null) image.thenAccept(img -> SwingUtilities.invokeLater(() -> {
+            source = img;
+            invalidateScaled(-1, -1, null);
+            repaint();
+        }));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int w = getWidth(), h = getHeight();
+        if (source == null || w <= 0 || h <= 0) { super.paintComponent(g); return; }
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (w != scaledW || h != scaledH || gc != scaledFor) invalidateScaled(w, h, gc);
+
+        if (gc != null && !GraphicsEnvironment.isHeadless()) {
+            // the contents of a VolatileImage can be lost at any time (display change, another app going full-screen)
+            for (int attempt = 0; attempt < 3; attempt++) {
+                int status = accelerated == null ? VolatileImage.IMAGE_INCOMPATIBLE : accelerated.validate(gc);
+                if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    if (accelerated != null) accelerated.flush();
+                    accelerated = gc.createCompatibleVolatileImage(w, h, Transparency.OPAQUE);
+                    renderScaled(accelerated);
+                } else if (status == VolatileImage.IMAGE_RESTORED) {
+                    renderScaled(accelerated);
+                }
+                g.drawImage(accelerated, 0, 0, null);
+                if (!accelerated.contentsLost()) return;
+            }
+        }
+        if (fallback == null) {
+            fallback = gc != null ? gc.createCompatibleImage(w, h, Transparency.OPAQUE) : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            renderScaled(fallback);
+        }
+        g.drawImage(fallback, 0, 0, null);
+    }
+
+    private void invalidateScaled(int w, int h, GraphicsConfiguration gc) {
+        if (accelerated != null) accelerated.flush();
+        accelerated = null;
+        fallback = null;
+        scaledW = w;
+        scaledH = h;
+        scaledFor = gc;
+    }
+
+    /**
+     * The one expensive step, done only when the size changes. Default (nearest-neighbour) scaling,
+     * so the frames look as before and a window drag does not pay for a bilinear 4K rescale per step.
+     */
+    private void renderScaled(Image target) {
+        Graphics g2 = target.getGraphics();
+        try {
+            g2.drawImage(source, 0, 0, scaledW, scaledH, null);
+        } finally {
+            g2.dispose();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * CsvReader: streaming, allocation-free tokenizer shared by the DataStore loaders.
+ * Rows are split in place inside a reusable char buffer; fields are exposed as
+ * (start, end) offsets already trimmed of surrounding whitespace, so reading an int
+ * or comparing a field never creates a substring. Malformed numbers are reported
+ * through warn() with the line number instead of throwing.
+ * No quoting is supported, matching the plain split(",") the loaders used before.
+ */
+public class CsvReader implements Closeable {
+    private final Reader in;
+    private final char sep;
+    private final String source;
+    private char[] buf = new char[1 << 16];
+    private int pos, limit;
+    private boolean eof;
+
+    private int rowStart, rowEnd;
+    private int[] starts = new int[16], ends = new int[16];
+    private int fields;
+    private int tailStart; // start of the field after the last separator seen by scanRow
+    private int lineNo;
+    private int warnings;
+    private final List<String> pool = new ArrayList<>(); // repeated short values (IA, subject)
+
+    public CsvReader(Reader in, char sep, String source) {
+        this.in = in;
+        this.sep = sep;
+        this.source = source;
+    }
+
+    public static CsvReader open(File f, char sep) throws IOException {
+        return new CsvReader(new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8), sep, f.getName());
+    }
+
+    /** Advances to the next row (blank rows included). Returns false at end of input. */
+    public boolean next() throws IOException {
+        int nl;
+        while ((nl = scanRow()) < 0) {
+            if (eof) {
+                if (pos >= limit) return false;
+                nl = limit; // last row without trailing newline
+                break;
+            }
+            fill();
+        }
+        rowStart = pos;
+        rowEnd = nl > pos && buf[nl - 1] == '\r' ? nl - 1 : nl;
+        pos = Math.min(nl + 1, limit);
+        lineNo++;
+        finishRow();
+        return true;
+    }
+
+    public int lineNumber() { return lineNo; }
+    public int fieldCount() { return fields; }
+    public int warnings() { return warnings; }
+
+    /** True when the row has no non-whitespace characters. */
+    public boolean isBlank() {
+        for (int i = rowStart; i < rowEnd; i++) if (buf[i] > ' ') return false;
+        return true;
+    }
+
+    /** True when the trimmed row starts with the given character (e.g. '#' comments). */
+    public boolean startsWith(char c) {
+        for (int i = rowStart; i < rowEnd; i++) if (buf[i] > ' ') return buf[i] == c;
+        return false;
+    }
+
+    /** True for rows that carry no record: "#dm"-style comments and "--ess"-style section markers. */
+    public boolean isComment() {
+        for (int i = rowStart; i < rowEnd; i++)
+            if (buf[i] > ' ') return buf[i] == '#' || (buf[i] == '-' && i + 1 < rowEnd && buf[i + 1] == '-');
+        return false;
+    }
+
+    public String string(int i) {
+        return i < fields ? new String(buf, starts[i], ends[i] - starts[i]) : "";
+    }
+
+    /** Like string(i) but reuses an earlier String with the same content (for low-cardinality columns). */
+    public String pooled(int i) {
+        for (String s : pool) if (fieldEquals(i, s)) return s;
+        String s = string(i);
+        if (pool.size() < 64) pool.add(s);
+        return s;
+    }
+
+    /** The whole row, trimmed. */
+    public String line() {
+        int s = rowStart, e = rowEnd;
+        while (s < e && buf[s] <= ' ') s++;
+        while (e > s && buf[e - 1] <= ' ') e--;
+        return new String(buf, s, e - s);
+    }
+
+    public boolean fieldEquals(int i, String s) {
+        if (i >= fields || ends[i] - starts[i] != s.length()) return false;
+        for (int k = 0; k < s.length(); k++) if (buf[starts[i] + k] != s.charAt(k)) return false;
+        return true;
+    }
+
+    public boolean fieldEndsWith(int i, String suffix) {
+        int len = i < fields ? ends[i] - starts[i] : 0;
+        if (len < suffix.length()) return false;
+        for (int k = 0, off = ends[i] - suffix.length(); k < suffix.length(); k++) if (buf[off + k] != suffix.charAt(k)) return false;
+        return true;
+    }
+
+    /** Parses field i as an int; empty or malformed cells yield def (malformed ones are warned about). */
+    public int intField(int i, int def) {
+        if (i >= fields || starts[i] == ends[i]) return def;
+        int p = starts[i], e = ends[i];
+        boolean neg = buf[p] == '-';
+        if (neg || buf[p] == '+') p++;
+        if (p == e) { warn("bad number in column " + (i + 1)); return def; }
+        long v = 0;
+        for (; p < e; p++) {
+            int d = buf[p] - '0';
+            if (d < 0 || d > 9 || v > Integer.MAX_VALUE) { warn("bad number in column " + (i + 1)); return def; }
+            v = v * 10 + d;
+        }
+        v = neg ? -v : v;
+        if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) { warn("number out of range in column " + (i + 1)); return def; }
+        return (int) v;
+    }
+
+    /** Reports a bad row with its line number; only the first few are printed. */
+    public void warn(String why) {
+        if (warnings++ < 20) System.out.println("DataStore: " + source + ":" + lineNo + ": " + why);
+        else if (warnings == 21) System.out.println("DataStore: " + source + ": further warnings suppressed");
+    }
+
+    @Override public void close() throws IOException { in.close(); }
+
+    // ---------------- Internals ----------------
+    /**
+     * Single pass over the pending row: records separator positions as it looks for the newline.
+     * Returns the newline index, or -1 when the row continues past the buffered data.
+     */
+    private int scanRow() {
+        fields = 0;
+        int s = pos;
+        for (int i = pos; i < limit; i++) {
+            char c = buf[i];
+            if (c == '\n') { tailStart = s; return i; }
+            if (c == sep) { addField(s, i); s = i + 1; }
+        }
+        tailStart = s;
+        return -1;
+    }
+
+    private void fill() throws IOException {
+        if (pos > 0) { // slide the partial row to the front
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) eof = true; else limit += n;
+    }
+
+    /** Adds the last field (after the final separator) once the row end is known. */
+    private void finishRow() {
+        addField(Math.min(tailStart, rowEnd), rowEnd);
+    }
+
+    private void addField(int a, int b) {
+        if (fields == starts.length) { starts = Arrays.copyOf(starts, fields * 2); ends = Arrays.copyOf(ends, fields * 2); }
+        while (a < b && buf[a] <= ' ') a++;
+        while (b > a && buf[b - 1] <= ' ') b--;
+        starts[fields] = a;
+        ends[fields] = b;
+        fields++;
+    }
+}
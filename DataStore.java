@@ -1,48 +1,154 @@
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
- * DataStore: loads marks, attendance (attendance.txt), emails (optional), announcements (announcements.txt).
- * Attendance file format: RegisterNo,DM,DS,DBMS,DPCO,OOP,ESS
- * Internal_marks.csv expected header: RegisterNo,Name,IA,Subject,ConceptTest,CAT,Total
+ * DataStore: the static API the apps use for marks, attendance and announcements.
+ * Storage modes are described in StudentStore, RemoteDataStore, MarksSnapshot and AttendanceLog.
  */
 public class DataStore {
     public static final String MARKS_CSV = "Internal_marks.csv";
     public static final String ATTENDANCE_FILE = "attendance.txt";
     public static final String ANNOUNCEMENTS_FILE = "announcements.txt";
     public static final String EMAILS_FILE = "emails.txt";
+    public static final String[] DEFAULT_SUBJECTS = {"DM","DS","DBMS","DPCO","OOP","ESS"};
 
-    private static final Map<String, Student> students = new LinkedHashMap<>(); // reg -> Student
-    private static final Map<String, Attendance> attendanceMap = new HashMap<>(); // reg -> Attendance
+    private static final RemoteDataStore remote = RemoteDataStore.fromConfig(); // null = local files
+    private static final boolean USE_MARKS_SNAPSHOT = Boolean.getBoolean("classconnect.marks.snapshot");
+    private static volatile MarksState marks = new MarksState(new MarksTable.Builder().build(), null, new NameIndex());
+    private static volatile AttendanceTable attendanceTable = new AttendanceTable(); // reg -> columnar present/total
+    private static final AttendanceJournal journal = new AttendanceJournal(AttendanceJournal.JOURNAL_FILE);
+    private static final AttendanceLog sessionLog = new AttendanceLog(AttendanceLog.LOG_FILE); // guarded like the table
+    // journal size (bytes) after which attendance.txt is rewritten in the background
+    private static final long COMPACT_THRESHOLD = Long.getLong("classconnect.journal.compactBytes", 256 * 1024);
+    private static final AtomicBoolean compacting = new AtomicBoolean();
+    // journal rows and file appends are written by one background thread; commitMs is the group-commit window
+    private static final WriteBehindQueue writes = new WriteBehindQueue(journal,
+            Long.getLong("classconnect.persist.commitMs", 20), Integer.getInteger("classconnect.persist.queue", 4096));
+    static { Runtime.getRuntime().addShutdownHook(new Thread(writes::close, "write-behind-flush")); }
+    private static final BTreeStudentStore archive = "btree".equalsIgnoreCase(System.getProperty("classconnect.store"))
+            ? new BTreeStudentStore(new File(BTreeStudentStore.DB_FILE), journal, writes) : null;
+    private static final StudentStore store = archive != null ? archive : new CsvStore();
+    private static final ExecutorService compactor = Executors.newSingleThreadExecutor(daemonThreads("attendance-compactor"));
     private static final List<String> announcements = new ArrayList<>();
     private static final List<Email> emails = new ArrayList<>();
+    private static final KeywordMatcher mailKeywords = KeywordMatcher.of(System.getProperty(
+            "classconnect.mailKeywords", "hackathon,participate,club,event,deadline,last day,selected"));
+    private static final List<String> mailAnnouncements = new ArrayList<>(); // "[Mail] ..." lines, classified at ingest
+    private static volatile List<String> announcementView = Collections.emptyList();
+    private static volatile long announcementsVersion;
 
-    static {
-        loadMarks();
-        loadAttendance();
-        loadAnnouncements();
-        loadEmails();
+    // ---------------- Change notification ----------------
+    public static final String DATASET_MARKS = "marks";
+    public static final String DATASET_ATTENDANCE = "attendance";
+    public static final String DATASET_ANNOUNCEMENTS = "announcements";
+
+    /** Notified after a dataset changes; registerNos lists the affected students (empty = not per-student). */
+    public interface ChangeListener {
+        void dataChanged(String dataset, Collection<String> registerNos);
+    }
+
+    private static final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public static void addChangeListener(ChangeListener l) { listeners.add(l); }
+    public static void removeChangeListener(ChangeListener l) { listeners.remove(l); }
+
+    // called outside the store lock; listeners must not assume they run on the EDT
+    private static void fireChange(String dataset, Collection<String> registerNos) {
+        for (ChangeListener l : listeners) {
+            try { l.dataChanged(dataset, registerNos); } catch (RuntimeException ex) { ex.printStackTrace(); }
+        }
+    }
+
+    // ---------------- Attendance locking ----------------
+    // A single-student save holds the shared side of attendanceGate plus the stripe of its
+    // register no, so teachers saving different students run in parallel; getAttendance takes
+    // the same pair and never sees half a save. Work on the whole table (new students or
+    // subjects, batch saves, compaction, reload) takes the exclusive side.
+    // Lock order: attendanceGate, then a stripe, then the journal. Marks need no lock: a
+    // MarksState is never modified after it is published.
+    private static final int LOCK_STRIPES = 64;
+    private static final Object[] stripes = new Object[LOCK_STRIPES];
+    static { for (int i = 0; i < LOCK_STRIPES; i++) stripes[i] = new Object(); }
+    private static final ReentrantReadWriteLock attendanceGate = new ReentrantReadWriteLock();
+
+    private static Object stripe(String reg) { return stripes[(reg.hashCode() & 0x7fffffff) % LOCK_STRIPES]; }
+
+    // ---------------- Async bootstrap ----------------
+    private static final ExecutorService loader = Executors.newFixedThreadPool(4, daemonThreads("datastore-loader"));
+    private static final CompletableFuture<Void> marksReady = load(DataStore::loadMarks);
+    private static final CompletableFuture<Void> attendanceReady = load(DataStore::loadAttendance);
+    private static final CompletableFuture<Void> announcementsReady = load(DataStore::loadAnnouncements);
+    private static final CompletableFuture<Void> emailsReady = load(DataStore::loadEmails);
+    private static final CompletableFuture<Void> announcementViewReady =
+            CompletableFuture.allOf(announcementsReady, emailsReady).thenRun(DataStore::rebuildAnnouncementView);
+
+    static { if (remote != null) remote.startPolling(DataStore::fireChange); }
+    // remote writes run in order, off the caller's thread, like local ones
+    private static final ExecutorService remoteWriter = Executors.newSingleThreadExecutor(daemonThreads("remote-writer"));
+
+    /** True when this process talks to a DataStoreServer instead of reading the data files. */
+    public static boolean isRemote() { return remote != null; }
+
+    /** Starts loading all data files in the background (touching the class is enough; this makes it explicit). */
+    public static void bootstrap() {}
+
+    public static CompletableFuture<Void> marksReady() { return marksReady; }
+    public static CompletableFuture<Void> attendanceReady() { return attendanceReady; }
+    public static CompletableFuture<Void> announcementsReady() { return announcementsReady; }
+    public static CompletableFuture<Void> emailsReady() { return emailsReady; }
+
+    public static CompletableFuture<Void> allReady() {
+        return CompletableFuture.allOf(marksReady, attendanceReady, announcementsReady, emailsReady);
+    }
+
+    private static CompletableFuture<Void> load(Runnable loaderTask) {
+        if (remote != null) return CompletableFuture.completedFuture(null); // the server holds the data
+        // a failing loader leaves its dataset empty instead of failing every query
+        return CompletableFuture.runAsync(loaderTask, loader).exceptionally(ex -> { ex.printStackTrace(); return null; });
+    }
+
+    static ThreadFactory daemonThreads(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
     }
 
 private static void loadAnnouncements() {
-    announcements.clear();
-    File f = new File(ANNOUNCEMENTS_FILE);
+    List<String> fresh = readAnnouncements(new File(ANNOUNCEMENTS_FILE));
+    synchronized (DataStore.class) { announcements.clear(); announcements.addAll(fresh); }
+}
+
+static List<String> readAnnouncements(File f) {
+    List<String> out = new ArrayList<>();
     if (!f.exists()) {
         System.out.println("DataStore: announcements file missing — starting empty.");
-        return;
+        return out;
     }
-    try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-        String line;
-        while((line = br.readLine()) != null) {
-            if (!line.trim().isEmpty()) announcements.add(line.trim());
+    try (CsvReader csv = CsvReader.open(f, '\n')) {
+        while (csv.next()) {
+            if (!csv.isBlank()) out.add(csv.line());
         }
     } catch (IOException ex) { ex.printStackTrace(); }
+    return out;
 }
 
     // ---------------- Data classes ----------------
     public static class Marks { 
         public final int concept, cat, total; 
         public Marks(int c,int ca,int t){ concept=c; cat=ca; total=t; } 
+        @Override public boolean equals(Object o) {
+            return o instanceof Marks && ((Marks) o).concept == concept && ((Marks) o).cat == cat && ((Marks) o).total == total;
+        }
+        @Override public int hashCode() { return Objects.hash(concept, cat, total); }
     }
 
     public static class Student {
@@ -63,9 +169,8 @@ private static void loadAnnouncements() {
             if(presentMap != null) presentPerSubject.putAll(presentMap);
             if(totalMap != null) totalPerSubject.putAll(totalMap);
         }
-        public static synchronized void updateAttendance(String registerNo, Attendance attendance) {
-    attendanceMap.put(registerNo, attendance);
-    persistAttendanceFile();
+        public static void updateAttendance(String registerNo, Attendance attendance) {
+    DataStore.updateAttendance(registerNo, attendance.presentPerSubject, attendance.totalPerSubject);
 }
 
 
@@ -82,67 +187,199 @@ private static void loadAnnouncements() {
         public Email(String s,String b,String d){ subj=s; body=b; date=d; } 
     }
 
+    /** Everything derived from Internal_marks.csv; replaced as one unit when the file is (re)loaded. */
+    static final class MarksState {
+        final MarksTable table;       // packed off-heap rows (empty when served from the snapshot)
+        final MarksSnapshot snapshot; // non-null: marks are read from the mapped file
+        final NameIndex names;        // name / register search
+
+        MarksState(MarksTable table, MarksSnapshot snapshot, NameIndex names) {
+            this.table = table;
+            this.snapshot = snapshot;
+            this.names = names;
+        }
+
+        Student student(String reg) {
+            if (snapshot == null) { int ord = table.find(reg); return ord < 0 ? null : table.student(ord); }
+            int slot = snapshot.find(reg);
+            return slot < 0 ? null : snapshot.materialize(slot);
+        }
+
+        boolean contains(String reg) { return snapshot != null ? snapshot.find(reg) >= 0 : table.find(reg) >= 0; }
+
+        Set<String> registers() {
+            Set<String> out = new LinkedHashSet<>();
+            if (snapshot == null) {
+                for (int i = 0; i < table.size(); i++) out.add(table.register(i));
+                return out;
+            }
+            for (int i = 0; i < snapshot.studentCount(); i++) out.add(snapshot.register(snapshot.slotInCsvOrder(i)));
+            return out;
+        }
+    }
+
+    /** The default StudentStore: tables loaded from the files, guarded as described above. */
+    private static final class CsvStore implements StudentStore {
+        @Override public Student student(String reg) {
+            marksReady.join();
+            return marks.student(reg);
+        }
+
+        @Override public Marks marks(String reg, String ia, String subject) {
+            marksReady.join();
+            MarksState m = marks;
+            MarksSnapshot snap = m.snapshot;
+            if (snap != null) { int slot = snap.find(reg); return slot < 0 ? null : snap.marks(slot, ia, subject); }
+            int ord = m.table.find(reg);
+            return ord < 0 ? null : m.table.marks(ord, ia, subject);
+        }
+
+        @Override public Map<String, Marks> marksForIA(String reg, String ia) {
+            marksReady.join();
+            MarksState m = marks;
+            MarksSnapshot snap = m.snapshot;
+            if (snap != null) { int slot = snap.find(reg); return slot < 0 ? null : snap.marksForIA(slot, ia); }
+            int ord = m.table.find(reg);
+            return ord < 0 ? null : m.table.marksForIA(ord, ia);
+        }
+
+        @Override public Attendance attendance(String reg) {
+            attendanceReady.join();
+            attendanceGate.readLock().lock();
+            try {
+                synchronized (stripe(reg)) {
+                    AttendanceTable t = attendanceTable;
+                    int ord = t.ordinal(reg);
+                    return ord < 0 ? null : t.view(ord);
+                }
+            } finally {
+                attendanceGate.readLock().unlock();
+            }
+        }
+
+        @Override public CompletableFuture<Void> updateAttendance(String reg, Map<String,Integer> presentMap, Map<String,Integer> totalMap) {
+            attendanceReady.join();
+            while (true) {
+                attendanceGate.readLock().lock();
+                try {
+                    if (hasLayout(reg, presentMap, totalMap)) {
+                        synchronized (stripe(reg)) {
+                            // queued under the stripe, so per-student write order matches apply order;
+                            // cost does not depend on class size
+                            Map<String,int[]> cells = applyAttendance(reg, presentMap, totalMap);
+                            return writes.attendance(reg, cells);
+                        }
+                    }
+                } finally {
+                    attendanceGate.readLock().unlock();
+                }
+                // first save for this student or subject: add the row/columns exclusively, then retry
+                attendanceGate.writeLock().lock();
+                try { ensureLayout(reg, presentMap, totalMap); } finally { attendanceGate.writeLock().unlock(); }
+            }
+        }
+
+        @Override public Set<String> registers() {
+            marksReady.join();
+            return marks.registers();
+        }
+    }
+
     // ---------------- Loaders ----------------
     private static void loadMarks() {
-        students.clear();
-        File f = new File(MARKS_CSV);
-        if (!f.exists()) { System.out.println("DataStore: Missing " + MARKS_CSV); return; }
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            br.readLine(); // header
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] p = line.split(",", -1);
-                if (p.length < 7) continue;
-                String reg = p[0].trim();
-                String name = p[1].trim();
-                String ia = p[2].trim();
-                String subject = p[3].trim();
-                int concept = parseIntSafe(p[4]);
-                int cat = parseIntSafe(p[5]);
-                int total = parseIntSafe(p[6]);
-                Student s = students.get(reg);
-                if (s == null) { s = new Student(reg, name); students.put(reg, s); }
-                if (s.name == null || s.name.isEmpty()) s.name = name;
-                s.iaMarks.computeIfAbsent(ia, k -> new HashMap<>()).put(subject, new Marks(concept, cat, total));
+        if (archive != null) { archive.open(new File(MARKS_CSV), new File(ATTENDANCE_FILE), DataStore::recoverSessionLog); return; }
+        marks = readMarks(new File(MARKS_CSV));
+    }
+
+    static MarksState readMarks(File f) {
+        MarksTable.Builder rows = new MarksTable.Builder();
+        NameIndex idx = new NameIndex();
+        if (!f.exists()) { System.out.println("DataStore: Missing " + f.getName()); return new MarksState(rows.build(), null, idx); }
+        File bin = new File(f.getParentFile(), MarksSnapshot.SNAPSHOT_FILE);
+        if (USE_MARKS_SNAPSHOT) {
+            MarksSnapshot snap = MarksSnapshot.openIfFresh(f, bin);
+            if (snap != null) {
+                for (int i = 0; i < snap.studentCount(); i++) {
+                    int slot = snap.slotInCsvOrder(i);
+                    idx.add(snap.register(slot), snap.name(slot));
+                }
+                System.out.println("DataStore: Mapped marks snapshot for " + snap.studentCount() + " students.");
+                return new MarksState(rows.build(), snap, idx);
+            }
+        }
+        try (CsvReader csv = CsvReader.open(f, ',')) {
+            boolean headerSeen = false;
+            while (csv.next()) {
+                if (csv.isBlank() || csv.isComment()) continue; // blank, "#dm" comment and "--ess" section lines
+                if (!headerSeen && csv.fieldEquals(0, "RegisterNo")) { headerSeen = true; continue; }
+                if (csv.fieldCount() < 7) { csv.warn("expected 7 fields, found " + csv.fieldCount()); continue; }
+                rows.add(csv.string(0), csv.string(1), csv.pooled(2), csv.pooled(3),
+                        csv.intField(4, 0), csv.intField(5, 0), csv.intField(6, 0));
             }
-            System.out.println("DataStore: Loaded marks for " + students.size() + " students.");
         } catch (IOException ex) { ex.printStackTrace(); }
+        MarksTable table = rows.build();
+        for (int i = 0; i < table.size(); i++) idx.add(table.register(i), table.name(i));
+        System.out.println("DataStore: Loaded marks for " + table.size() + " students (" + table.rows() + " rows, "
+                + table.offHeapBytes() / 1024 + " KB off-heap).");
+        if (USE_MARKS_SNAPSHOT) {
+            try { MarksSnapshot.write(f, bin, table.toStudents()); System.out.println("DataStore: Compiled " + bin); }
+            catch (IOException ex) { ex.printStackTrace(); }
+        }
+        return new MarksState(table, null, idx);
     }
 
 private static void loadAttendance() {
-    attendanceMap.clear();
-    File f = new File(ATTENDANCE_FILE);
-    if (!f.exists()) { 
-        System.out.println("DataStore: attendance file not found (will create when teacher saves)."); 
-        return; 
-    }
-    try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-        String header = br.readLine();
-        if(header == null) return;
-
-        String[] subjects = {"DM","DS","DBMS","DPCO","OOP","ESS"};
-        String line;
-        while ((line = br.readLine()) != null) {
-            if (line.trim().isEmpty()) continue;
-            String[] p = line.split(",", -1);
-            if (p.length < 2) continue;
-
-            String reg = p[0].trim(); // register number
-            Attendance a = new Attendance();
-
-            for(int i=0; i<subjects.length; i++) {
-                int val = (i+2 < p.length) ? parseIntSafe(p[i+2]) : 0; // safely get value
-                a.set(subjects[i], val, getDefaultTotal(subjects[i]));
+    // archive mode: rows and the journal belong to classconnect.db, which the marks loader opens
+    if (archive != null) { sessionLog.load(); return; }
+    AttendanceTable t = readAttendanceFile(new File(ATTENDANCE_FILE));
+    // replay saves made since the last snapshot
+    journal.replay((reg, cells) -> {
+        int ord = t.ensureStudent(reg);
+        for (Map.Entry<String,int[]> e : cells.entrySet())
+            t.set(ord, t.ensureSubject(e.getKey()), e.getValue()[0], e.getValue()[1]);
+    });
+    sessionLog.load();
+    recoverSessionLog(journal.lastNote());
+    attendanceTable = t;
+    System.out.println("DataStore: Loaded attendance entries: " + t.size() + " (journal seq " + journal.lastSeq() + ")");
+}
+
+static AttendanceTable readAttendanceFile(File f) {
+    AttendanceTable table = new AttendanceTable();
+    if (!f.exists()) {
+        System.out.println("DataStore: attendance file not found (will create when teacher saves).");
+    } else try (CsvReader csv = CsvReader.open(f, ',')) {
+        if (csv.next()) {
+            // header columns: "SUBJ_Present"/"SUBJ_Total" pairs, or a bare "SUBJ" (present only)
+            int cols = csv.fieldCount();
+            int[] presentCol = new int[cols], totalCol = new int[cols];
+            Arrays.fill(presentCol, -1); Arrays.fill(totalCol, -1);
+            for (int i = 1; i < cols; i++) {
+                String col = csv.string(i);
+                if (csv.fieldEndsWith(i, "_Present")) presentCol[i] = table.ensureSubject(col.substring(0, col.length()-8));
+                else if (csv.fieldEndsWith(i, "_Total")) totalCol[i] = table.ensureSubject(col.substring(0, col.length()-6));
+                else if (!col.isEmpty()) presentCol[i] = table.ensureSubject(col);
+            }
+            List<String> subjects = table.subjects();
+            while (csv.next()) {
+                if (csv.isBlank()) continue;
+                if (csv.fieldCount() < 2) { csv.warn("no attendance values"); continue; }
+
+                int ord = table.ensureStudent(csv.string(0)); // register number
+                for (int s = 0; s < subjects.size(); s++)
+                    table.set(ord, s, 0, getDefaultTotal(subjects.get(s)));
+                for (int i = 1; i < csv.fieldCount() && i < cols; i++) {
+                    if (presentCol[i] >= 0) table.setPresent(ord, presentCol[i], csv.intField(i, 0));
+                    else if (totalCol[i] >= 0) table.setTotal(ord, totalCol[i], csv.intField(i, 0));
+                }
             }
-            attendanceMap.put(reg, a);
         }
-        System.out.println("DataStore: Loaded attendance entries: " + attendanceMap.size());
     } catch (IOException ex) { ex.printStackTrace(); }
+    return table;
 }
 
 // helper to return default totals
-private static int getDefaultTotal(String subj) {
+static int getDefaultTotal(String subj) {
     switch(subj) {
         case "DM": return 5;
         case "DS": return 4;
@@ -156,75 +393,442 @@ private static int getDefaultTotal(String subj) {
 
 
     private static void loadEmails() {
-        emails.clear();
-        File f = new File(EMAILS_FILE);
+        List<Email> mails = new ArrayList<>();
+        List<String> mailAnns = new ArrayList<>();
+        readEmails(new File(EMAILS_FILE), mails, mailAnns);
+        synchronized (DataStore.class) {
+            emails.clear(); emails.addAll(mails);
+            mailAnnouncements.clear(); mailAnnouncements.addAll(mailAnns);
+        }
+    }
+
+    static void readEmails(File f, List<Email> mails, List<String> mailAnns) {
         if (!f.exists()) return;
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String line;
-            while((line=br.readLine())!=null){
-                if (line.trim().isEmpty()) continue;
-                String[] p = line.split("\\|", -1);
-                String s = p.length>0?p[0]:"";
-                String b = p.length>1?p[1]:"";
-                String d = p.length>2?p[2]:"";
-                emails.add(new Email(s,b,d));
+        try (CsvReader csv = CsvReader.open(f, '|')) {
+            while (csv.next()) {
+                if (csv.isBlank()) continue;
+                ingestEmail(new Email(csv.string(0), csv.string(1), csv.string(2)), mails, mailAnns);
             }
         } catch (IOException ex) { ex.printStackTrace(); }
     }
 
-    // ---------------- Helpers ----------------
-    private static int parseIntSafe(String s) {
-        try { return Integer.parseInt(s.trim()); } catch (Exception e) { return 0; }
+    // classify once: keyword-matching mails become "[Mail] subject (date)" announcement lines
+    private static void ingestEmail(Email em, List<Email> mails, List<String> mailAnns) {
+        mails.add(em);
+        if (!mailKeywords.matches(em.subj + " " + em.body)) return;
+        String summary = em.subj.isEmpty() ? (em.body.length()>60?em.body.substring(0,60)+"...":em.body) : em.subj;
+        mailAnns.add("[Mail] " + summary + (em.date.isEmpty() ? "" : " ("+em.date+")"));
     }
 
     // ---------------- Public API ----------------
-    public static Student getStudentByRegister(String reg) { return students.get(reg); }
+    public static Student getStudentByRegister(String reg) {
+        if (remote != null) return remote.getStudent(reg);
+        return store.student(reg);
+    }
+    /**
+     * Exact name match (case/whitespace-insensitive), else a partial name match if it is unambiguous.
+     * Register numbers are not matched here, so "3111" never stands for the one student whose number starts with it.
+     */
     public static Optional<String> findRegisterByName(String name) {
-        for (Student s : students.values()) if (s.name != null && s.name.equalsIgnoreCase(name.trim())) return Optional.of(s.registerNo);
-        return Optional.empty();
+        if (remote != null) return remote.findRegisterByName(name);
+        NameIndex names = names();
+        Optional<String> hit = names.findExact(name);
+        if (hit.isPresent()) return hit;
+        List<String> partial = names.searchNames(name, 2);
+        return partial.size() == 1 ? Optional.of(partial.get(0)) : Optional.empty();
+    }
+
+    /** Type-ahead search over names and register numbers ("kevin jo", "K J B", "3111241040"). */
+    public static List<String> searchStudents(String query, int limit) {
+        if (remote != null) return remote.searchStudents(query, limit);
+        return names().search(query, limit);
+    }
+
+    private static NameIndex names() {
+        if (archive != null) return archive.names();
+        marksReady.join();
+        return marks.names;
+    }
+    public static Set<String> getAllRegisterNos() {
+        if (remote != null) return remote.getAllRegisterNos();
+        return store.registers();
     }
-    public static Set<String> getAllRegisterNos() { return new LinkedHashSet<>(students.keySet()); }
 
     public static Marks getMarks(String reg, String ia, String subject) {
-        Student s = students.get(reg); if (s==null) return null;
-        Map<String, Marks> sub = s.iaMarks.get(ia); if (sub==null) return null;
-        return sub.get(subject);
+        if (remote != null) { Map<String, Marks> sub = getMarksForIA(reg, ia); return sub == null ? null : sub.get(subject); }
+        return store.marks(reg, ia, subject);
     }
 
     public static Map<String, Marks> getMarksForIA(String reg, String ia) {
-        Student s = students.get(reg); if (s==null) return null;
-        return s.iaMarks.get(ia);
+        if (remote != null) { Student s = remote.getStudent(reg); return s == null ? null : s.iaMarks.get(ia); }
+        return store.marksForIA(reg, ia);
+    }
+
+    /** Rank and percentile of the student's total in one IA and subject (see MarksAnalytics); null if no mark. */
+    public static MarksAnalytics.Standing getStanding(String reg, String ia, String subject) {
+        if (remote != null) return remote.getStanding(reg, ia, subject);
+        return MarksAnalytics.shared().standing(reg, ia, subject);
+    }
+
+    /** Class distribution of totals for one IA and subject, in buckets of bucketWidth marks. */
+    public static int[] getMarksHistogram(String ia, String subject, int bucketWidth) {
+        if (remote != null) return remote.getMarksHistogram(ia, subject, bucketWidth);
+        return MarksAnalytics.shared().histogram(ia, subject, bucketWidth);
     }
 
-    public static boolean hasAttendanceData() { return !attendanceMap.isEmpty(); }
+    /**
+     * Students below the attendance threshold in one subject, or overall when subject is null,
+     * lowest first, each with the classes needed to recover (see AtRiskIndex). No class scan.
+     */
+    public static List<AtRiskIndex.Risk> getAtRiskStudents(String subject) {
+        if (remote != null) return remote.getAtRiskStudents(subject);
+        return AtRiskIndex.shared().atRisk(subject);
+    }
+
+    public static boolean hasAttendanceData() { return getAttendanceTable().size() > 0; }
     public static Attendance getAttendance(String regOrName) {
-        Attendance a = attendanceMap.get(regOrName);
-        if (a != null) return a;
-        Optional<String> reg = findRegisterByName(regOrName);
-        return reg.map(attendanceMap::get).orElse(null);
+        if (remote != null) return remote.getAttendance(regOrName);
+        String reg = resolveRegister(regOrName);
+        return reg == null ? null : store.attendance(reg);
+    }
+
+    // a register number with an attendance row, else the student that name (not a register prefix) finds
+    private static String resolveRegister(String regOrName) {
+        attendanceReady.join();
+        boolean known = archive != null ? archive.attendance(regOrName) != null : attendanceTable.ordinal(regOrName) >= 0;
+        return known ? regOrName : findRegisterByName(regOrName).orElse(null);
+    }
+
+    /** Packed marks for class-wide loops, or null when they are not held as a table here (remote, snapshot, archive). */
+    public static MarksTable getMarksTable() {
+        if (remote != null || archive != null) return null;
+        marksReady.join();
+        MarksState m = marks;
+        return m.snapshot != null ? null : m.table;
+    }
+
+    /**
+     * Columnar store for class-wide loops (reports) that should not build per-student views.
+     * Safe to read without a lock (see AttendanceTable); a cell may lag a save in progress.
+     */
+    public static AttendanceTable getAttendanceTable() {
+        if (remote != null) return remote.getAttendanceTable();
+        if (archive != null) return archive.attendanceTable();
+        attendanceReady.join();
+        return attendanceTable;
     }
 
     // ---------------- Attendance update ----------------
-   public static synchronized void updateAttendance(String reg, Map<String,Integer> presentMap, Map<String,Integer> totalMap) {
-    Attendance a = attendanceMap.getOrDefault(reg, new Attendance());
-    if(presentMap != null) for(String subj : presentMap.keySet()) a.presentPerSubject.put(subj, presentMap.get(subj));
-    
+   /**
+    * The checks updateAttendanceBatch makes, for one full save: the register no and every subject must be
+    * known, totals not negative and present between 0 and the total (the new one, else the current one).
+    * Empty when the row may be saved. DataStoreServer runs it before updateAttendance; remote clients
+    * leave it to the server.
+    */
+   public static List<String> checkAttendanceRow(String reg, Map<String,Integer> presentMap, Map<String,Integer> totalMap) {
+    List<String> errors = new ArrayList<>();
+    if (remote != null) return errors;
+    Attendance current = reg == null ? null : store.attendance(reg);
+    if (current == null && (reg == null || store.student(reg) == null)) { errors.add("Unknown register no: " + reg); return errors; }
+    Set<String> subjects = new LinkedHashSet<>();
+    if (presentMap != null) subjects.addAll(presentMap.keySet());
+    if (totalMap != null) subjects.addAll(totalMap.keySet());
+    for (String subj : subjects) {
+        boolean known = current != null && current.totalPerSubject.containsKey(subj);
+        if (!known && getDefaultTotal(subj) == 0 && (archive != null || attendanceTable.subjectOrdinal(subj) < 0)) {
+            errors.add(reg + ": unknown subject " + subj);
+            continue;
+        }
+        Integer total = totalMap != null && totalMap.containsKey(subj) ? totalMap.get(subj) : known ? current.getTotal(subj) : getDefaultTotal(subj);
+        Integer present = presentMap != null && presentMap.containsKey(subj) ? presentMap.get(subj) : current == null ? 0 : current.getPresent(subj);
+        if (total == null || total < 0) { errors.add(reg + ": " + subj + " total " + total + " must not be negative"); continue; }
+        if (present == null || present < 0 || present > total)
+            errors.add(reg + ": " + subj + " present " + present + " must be between 0 and " + total);
+    }
+    return errors;
+}
+
+   /** Applies the save in memory at once; the future completes when it is on disk. */
+   public static CompletableFuture<Void> updateAttendance(String reg, Map<String,Integer> presentMap, Map<String,Integer> totalMap) {
+    if (remote != null) return CompletableFuture.runAsync(() -> remote.updateAttendance(reg, presentMap, totalMap), remoteWriter);
+    CompletableFuture<Void> saved = store.updateAttendance(reg, presentMap, totalMap);
+    maybeCompact();
+    fireChange(DATASET_ATTENDANCE, Collections.singletonList(reg));
+    return saved;
+}
+
+   /**
+    * Applies present counts for a whole class period (reg -> subject -> present) under one lock
+    * and persists them with a single synced journal write, framed as one group so that after a crash
+    * either the whole period is there or none of it. Every row is validated first;
+    * if anything is wrong nothing is applied and all problems are returned together.
+    */
+   public static List<String> updateAttendanceBatch(Map<String, Map<String,Integer>> presentByReg) {
+    if (remote != null) return remote.updateAttendanceBatch(presentByReg);
+    if (archive != null) return updateArchiveBatch(presentByReg);
+    attendanceReady.join();
+    List<String> errors = new ArrayList<>();
+    CompletableFuture<Void> saved;
+    attendanceGate.writeLock().lock();
+    try {
+        for (Map.Entry<String, Map<String,Integer>> row : presentByReg.entrySet()) {
+            String reg = row.getKey();
+            if (reg == null || (attendanceTable.ordinal(reg) < 0 && getStudentByRegister(reg) == null)) {
+                errors.add("Unknown register no: " + reg);
+                continue;
+            }
+            int ord = attendanceTable.ordinal(reg);
+            for (Map.Entry<String,Integer> e : row.getValue().entrySet()) {
+                String subj = e.getKey();
+                Integer present = e.getValue();
+                int s = attendanceTable.subjectOrdinal(subj);
+                if (s < 0 && getDefaultTotal(subj) == 0) { errors.add(reg + ": unknown subject " + subj); continue; }
+                int total = ord >= 0 && s >= 0 && attendanceTable.hasTotal(ord, s) ? attendanceTable.total(ord, s) : getDefaultTotal(subj);
+                if (present == null || present < 0 || present > total)
+                    errors.add(reg + ": " + subj + " present " + present + " must be between 0 and " + total);
+            }
+        }
+        if (!errors.isEmpty()) return errors;
+
+        Map<String, Map<String,int[]>> rows = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String,Integer>> row : presentByReg.entrySet()) {
+            ensureLayout(row.getKey(), row.getValue(), null);
+            rows.put(row.getKey(), applyAttendance(row.getKey(), row.getValue(), null));
+        }
+        saved = writes.attendanceBatch(rows);
+    } finally {
+        attendanceGate.writeLock().unlock();
+    }
+    // the whole period is one queue entry and one journal group; wait for it outside the lock
+    try { saved.join(); }
+    catch (CompletionException ex) { errors.add("Saved in memory but not on disk: " + ex.getCause().getMessage()); }
+    maybeCompact();
+    fireChange(DATASET_ATTENDANCE, presentByReg.keySet());
+    return errors;
+}
+
+   /**
+    * Records one dated session (present/absent per student) in the session log and adds it to the
+    * cumulative counters: +1 total for a first mark, +1 present when present. Re-recording a session
+    * corrects it without counting it twice. Validation works like updateAttendanceBatch: any problem
+    * means nothing is saved and every problem is returned. The counter changes and the log line go to
+    * the journal as one group before the line is appended to the log, so a crash between the two is
+    * repaired on the next start (recoverSessionLog).
+    */
+   public static List<String> recordSession(LocalDate date, int period, String subject, Map<String,Boolean> presentByReg) {
+    if (remote != null) return remote.recordSession(date, period, subject, presentByReg);
+    attendanceReady.join();
+    List<String> errors = new ArrayList<>();
+    if (date == null) errors.add("No date given");
+    if (period < 0 || period > AttendanceLog.MAX_PERIOD) errors.add("Period must be between 0 and " + AttendanceLog.MAX_PERIOD);
+    if (subject == null || (attendanceTable.subjectOrdinal(subject) < 0 && getDefaultTotal(subject) == 0)) errors.add("Unknown subject " + subject);
+    for (String reg : presentByReg.keySet())
+        if (reg == null || (attendanceTable.ordinal(reg) < 0 && getStudentByRegister(reg) == null)) errors.add("Unknown register no: " + reg);
+    if (!errors.isEmpty()) return errors;
+    if (archive != null) return recordArchiveSession(date, period, subject, presentByReg);
+
+    String line = AttendanceLog.line(date, period, subject, presentByReg);
+    attendanceGate.writeLock().lock();
+    try {
+        Map<String, Map<String,int[]>> rows = new LinkedHashMap<>();
+        Map<String,Integer> none = Collections.singletonMap(subject, 0);
+        for (Map.Entry<String,int[]> e : sessionLog.preview(date, period, subject, presentByReg).entrySet()) {
+            String reg = e.getKey();
+            ensureLayout(reg, none, null);
+            int ord = attendanceTable.ordinal(reg), s = attendanceTable.subjectOrdinal(subject);
+            int present = attendanceTable.hasPresent(ord, s) ? attendanceTable.present(ord, s) : 0;
+            int total = attendanceTable.hasTotal(ord, s) ? attendanceTable.total(ord, s) : getDefaultTotal(subject);
+            rows.put(reg, applyAttendance(reg, Collections.singletonMap(subject, present + e.getValue()[0]),
+                    Collections.singletonMap(subject, total + e.getValue()[1])));
+        }
+        // the journal group is the commit point; hold the gate until the log has the line too
+        CompletableFuture<Void> saved = writes.attendanceBatch(rows, line);
+        writes.flush();
+        try { saved.join(); logSession(date, period, subject, presentByReg, errors); }
+        catch (CompletionException ex) { errors.add("Saved in memory but not on disk: " + ex.getCause().getMessage()); }
+    } finally {
+        attendanceGate.writeLock().unlock();
+    }
+    maybeCompact();
+    fireChange(DATASET_ATTENDANCE, presentByReg.keySet());
+    return errors;
+}
+
+   /**
+    * Present/held counts per subject from the session log between from and to inclusive (null = open
+    * end), e.g. "October" or "the last two weeks"; O(1) per subject. Null when the student is unknown.
+    */
+   public static Attendance getAttendanceBetween(String regOrName, LocalDate from, LocalDate to) {
+    if (remote != null) return remote.getAttendanceBetween(regOrName, from, to);
+    String reg = resolveRegister(regOrName);
+    if (reg == null) return null;
+    Attendance a = new Attendance();
+    for (Map.Entry<String,int[]> e : sessionLog.counts(reg, from, to).entrySet()) a.set(e.getKey(), e.getValue()[0], e.getValue()[1]);
+    return a;
+}
+
+   // archive mode: rows live in classconnect.db, so validate and apply through the store; holding its
+   // lock keeps the batch all-or-nothing, as the attendance gate does for the table
+   private static List<String> updateArchiveBatch(Map<String, Map<String,Integer>> presentByReg) {
+    List<String> errors = new ArrayList<>();
+    CompletableFuture<Void> saved;
+    synchronized (archive) {
+        for (Map.Entry<String, Map<String,Integer>> row : presentByReg.entrySet()) {
+            String reg = row.getKey();
+            Attendance a = reg == null ? null : archive.attendance(reg);
+            if (a == null && (reg == null || archive.student(reg) == null)) { errors.add("Unknown register no: " + reg); continue; }
+            for (Map.Entry<String,Integer> e : row.getValue().entrySet()) {
+                String subj = e.getKey();
+                Integer present = e.getValue();
+                boolean known = a != null && a.totalPerSubject.containsKey(subj);
+                if (!known && getDefaultTotal(subj) == 0) { errors.add(reg + ": unknown subject " + subj); continue; }
+                int total = known ? a.getTotal(subj) : getDefaultTotal(subj);
+                if (present == null || present < 0 || present > total)
+                    errors.add(reg + ": " + subj + " present " + present + " must be between 0 and " + total);
+            }
+        }
+        if (!errors.isEmpty()) return errors;
+        saved = archive.updateAttendanceAll(presentByReg, null);
+    }
+    try { saved.join(); }
+    catch (CompletionException ex) { errors.add("Saved in memory but not on disk: " + ex.getCause().getMessage()); }
+    maybeCompact();
+    fireChange(DATASET_ATTENDANCE, presentByReg.keySet());
+    return errors;
+}
+
+   // archive mode: as recordSession, with the store's lock in place of the attendance gate
+   private static List<String> recordArchiveSession(LocalDate date, int period, String subject, Map<String,Boolean> presentByReg) {
+    List<String> errors = new ArrayList<>();
+    marksReady.join(); // the store is open and any session a crash left out of the log is back
+    String line = AttendanceLog.line(date, period, subject, presentByReg);
+    synchronized (archive) {
+        Map<String, Map<String,Integer>> present = new LinkedHashMap<>(), total = new LinkedHashMap<>();
+        for (Map.Entry<String,int[]> e : sessionLog.preview(date, period, subject, presentByReg).entrySet()) {
+            Attendance a = archive.attendance(e.getKey());
+            int p = a == null ? 0 : a.getPresent(subject);
+            int t = a != null && a.totalPerSubject.containsKey(subject) ? a.getTotal(subject) : getDefaultTotal(subject);
+            present.put(e.getKey(), Collections.singletonMap(subject, p + e.getValue()[0]));
+            total.put(e.getKey(), Collections.singletonMap(subject, t + e.getValue()[1]));
+        }
+        try { archive.updateAttendanceAll(present, total, line).join(); logSession(date, period, subject, presentByReg, errors); }
+        catch (CompletionException ex) { errors.add("Saved in memory but not on disk: " + ex.getCause().getMessage()); }
+    }
+    maybeCompact();
+    fireChange(DATASET_ATTENDANCE, presentByReg.keySet());
+    return errors;
+}
+
+   // second half of a session save, once its journal group is on disk; a failure here is repaired at the next start
+   private static void logSession(LocalDate date, int period, String subject, Map<String,Boolean> presentByReg, List<String> errors) {
+    try { sessionLog.record(date, period, subject, presentByReg, true); }
+    catch (IOException ex) { ex.printStackTrace(); errors.add("Saved in the journal but not yet in the session log: " + ex.getMessage()); }
+}
+
+   /** Start-up: puts back the journal's last session if a crash kept it out of the session log. */
+   static void recoverSessionLog(String lastSession) {
+    if (lastSession == null) return;
+    try { sessionLog.recover(lastSession); }
+    catch (IOException | RuntimeException ex) { System.out.println("DataStore: could not restore the last session: " + ex); }
+}
+
+   /** True when reg and every subject it touches already have a row/column, so a save only writes cells. */
+   private static boolean hasLayout(String reg, Map<String,Integer> presentMap, Map<String,Integer> totalMap) {
+    AttendanceTable t = attendanceTable;
+    if (t.ordinal(reg) < 0) return false;
+    if (presentMap != null) for (String subj : presentMap.keySet()) if (t.subjectOrdinal(subj) < 0) return false;
+    if (totalMap != null) for (String subj : totalMap.keySet()) if (t.subjectOrdinal(subj) < 0) return false;
+    for (String subj : DEFAULT_SUBJECTS) if (t.subjectOrdinal(subj) < 0) return false;
+    return true;
+}
+
+   // caller holds the exclusive side of attendanceGate
+   private static void ensureLayout(String reg, Map<String,Integer> presentMap, Map<String,Integer> totalMap) {
+    attendanceTable.ensureStudent(reg);
+    if (presentMap != null) for (String subj : presentMap.keySet()) attendanceTable.ensureSubject(subj);
+    if (totalMap != null) for (String subj : totalMap.keySet()) attendanceTable.ensureSubject(subj);
+    for (String subj : DEFAULT_SUBJECTS) attendanceTable.ensureSubject(subj);
+}
+
+   // caller holds the student's stripe (or the exclusive gate) and has ensured the layout;
+   // returns the student's full row for the journal
+   private static Map<String,int[]> applyAttendance(String reg, Map<String,Integer> presentMap, Map<String,Integer> totalMap) {
+    int ord = attendanceTable.ordinal(reg);
+    if(presentMap != null) for(Map.Entry<String,Integer> e : presentMap.entrySet())
+        attendanceTable.setPresent(ord, attendanceTable.subjectOrdinal(e.getKey()), e.getValue());
+    if(totalMap != null) for(Map.Entry<String,Integer> e : totalMap.entrySet())
+        attendanceTable.setTotal(ord, attendanceTable.subjectOrdinal(e.getKey()), e.getValue());
+
     // always store total classes if not provided
-    Map<String,Integer> defaultTotals = Map.of(
-        "DM", 5, "DS", 4, "DBMS", 7, "DPCO", 6, "OOP", 7, "ESS", 4
-    );
-    
-    if(totalMap != null) for(String subj : totalMap.keySet()) a.totalPerSubject.put(subj, totalMap.get(subj));
-    for(String subj : defaultTotals.keySet()) if(!a.totalPerSubject.containsKey(subj)) a.totalPerSubject.put(subj, defaultTotals.get(subj));
-    
-    attendanceMap.put(reg, a);
-    persistAttendanceFile();
+    for(String subj : DEFAULT_SUBJECTS) {
+        int s = attendanceTable.subjectOrdinal(subj);
+        if(!attendanceTable.hasTotal(ord, s)) attendanceTable.setTotal(ord, s, getDefaultTotal(subj));
+    }
+
+    Map<String,int[]> cells = new LinkedHashMap<>();
+    List<String> subjects = attendanceTable.subjects();
+    for (int s = 0; s < subjects.size(); s++)
+        cells.put(subjects.get(s), new int[]{ attendanceTable.present(ord, s), attendanceTable.total(ord, s) });
+    return cells;
+}
+
+   private static void maybeCompact() {
+    if (journal.size() > COMPACT_THRESHOLD && compacting.compareAndSet(false, true)) {
+        compactor.execute(() -> {
+            try { persistAttendanceFile(); } finally { compacting.set(false); }
+        });
+    }
 }
 
+   /**
+    * Compaction: rewrites attendance.txt from the table and folds the journal into it.
+    * Only the in-memory render and the journal rotation hold the attendance gate; the file write does not,
+    * so saves keep appending while the snapshot is written (temp file + atomic rename).
+    */
+   static void persistAttendanceFile() {
+    if (archive != null) { archive.checkpoint(); return; } // classconnect.db takes the snapshot's place
+    String snapshot;
+    attendanceGate.writeLock().lock();
+    try {
+        snapshot = renderAttendanceSnapshot(attendanceTable);
+        try { journal.rotate(); } catch (IOException ex) { ex.printStackTrace(); return; }
+    } finally {
+        attendanceGate.writeLock().unlock();
+    }
+    try {
+        writeAtomically(Paths.get(ATTENDANCE_FILE), snapshot);
+        journal.dropRotated(); // only now is the new attendance.txt (and its name) on disk
+    } catch (IOException ex) {
+        ex.printStackTrace();
+    }
+}
+
+   /**
+    * Writes target.tmp, forces it to disk and renames it over target, then syncs the directory: readers
+    * see the old or the new file, never half of one, and once this returns the new file survives a crash.
+    */
+   static void writeAtomically(Path target, String content) throws IOException {
+    Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+    try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        ByteBuffer buf = ByteBuffer.wrap(content.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) ch.write(buf);
+        ch.force(true);
+    }
+    try { Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE); }
+    catch (AtomicMoveNotSupportedException ex) { Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING); }
+    syncDirectory(target.toAbsolutePath().getParent());
+}
+
+   /** fsyncs a directory so a rename in it is durable; platforms that cannot open a directory (Windows) skip it. */
+   static void syncDirectory(Path dir) {
+    try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) { ch.force(true); }
+    catch (IOException ex) { /* directory sync not supported here */ }
+}
 
-   private static void persistAttendanceFile() {
-    try (PrintWriter pw = new PrintWriter(new FileWriter(ATTENDANCE_FILE))) {
-        String[] subjects = {"DM","DS","DBMS","DPCO","OOP","ESS"};
+   static String renderAttendanceSnapshot(AttendanceTable attendanceTable) {
+    StringWriter buf = new StringWriter();
+    try (PrintWriter pw = new PrintWriter(buf)) {
+        List<String> subjects = attendanceTable.subjects();
         // header
         StringBuilder header = new StringBuilder("RegisterNo");
         for (String subj : subjects) {
@@ -232,46 +836,168 @@ private static int getDefaultTotal(String subj) {
         }
         pw.println(header.toString());
 
-        for (Map.Entry<String, Attendance> e : attendanceMap.entrySet()) {
-            String reg = e.getKey();
-            Attendance a = e.getValue();
-            StringBuilder sb = new StringBuilder();
-            sb.append(reg);
-            for (String subj : subjects) {
-                int pres = a.presentPerSubject.getOrDefault(subj, 0);
-                int total = a.totalPerSubject.getOrDefault(subj, 0);
-                sb.append(",").append(pres).append(",").append(total);
+        StringBuilder sb = new StringBuilder();
+        for (int ord = 0; ord < attendanceTable.size(); ord++) {
+            sb.setLength(0);
+            sb.append(attendanceTable.register(ord));
+            for (int s = 0; s < subjects.size(); s++) {
+                sb.append(",").append(attendanceTable.present(ord, s)).append(",").append(attendanceTable.total(ord, s));
             }
             pw.println(sb.toString());
         }
-    } catch (IOException ex) {
-        ex.printStackTrace();
     }
+    return buf.toString();
 }
 
 
+    // ---------------- Hot reload ----------------
+    private static DataWatcher watcher;
+
+    /** Watches the data files and reloads whichever one changes (idempotent). */
+    public static synchronized void startWatching() {
+        if (remote != null) return; // the server watches its own files
+        if (watcher != null) return;
+        Map<String, Runnable> handlers = new HashMap<>();
+        if (archive == null) { // archive mode imports the marks CSV at startup and owns attendance
+            handlers.put(MARKS_CSV, DataStore::reloadMarks);
+            handlers.put(ATTENDANCE_FILE, DataStore::reloadAttendance);
+        }
+        handlers.put(ANNOUNCEMENTS_FILE, DataStore::reloadAnnouncements);
+        handlers.put(EMAILS_FILE, DataStore::reloadAnnouncements);
+        watcher = new DataWatcher(Paths.get("").toAbsolutePath(), handlers);
+        watcher.start();
+    }
+
+    static void reloadMarks() {
+        marksReady.join();
+        MarksState old = marks;
+        MarksState fresh = readMarks(new File(MARKS_CSV));
+        Set<String> changed = new LinkedHashSet<>();
+        for (String reg : fresh.registers()) {
+            Student a = old.student(reg), b = fresh.student(reg);
+            if (a == null || !Objects.equals(a.name, b.name) || !a.iaMarks.equals(b.iaMarks)) changed.add(reg);
+        }
+        for (String reg : old.registers()) if (!fresh.contains(reg)) changed.add(reg);
+        if (changed.isEmpty()) return;
+        marks = fresh; // readers pick up the new state on their next call; nothing blocks
+        System.out.println("DataStore: Reloaded marks, " + changed.size() + " students changed.");
+        fireChange(DATASET_MARKS, changed);
+    }
+
+    static void reloadAttendance() {
+        if (archive != null) return; // attendance.txt is not read after classconnect.db is built
+        attendanceReady.join();
+        AttendanceTable fresh = readAttendanceFile(new File(ATTENDANCE_FILE));
+        Set<String> changed = new LinkedHashSet<>();
+        attendanceGate.writeLock().lock();
+        try {
+            // saves journaled since the last snapshot stay on top of the new file; queued ones are written first
+            writes.flush().exceptionally(ex -> null).join();
+            journal.replay((reg, cells) -> {
+                int ord = fresh.ensureStudent(reg);
+                for (Map.Entry<String,int[]> e : cells.entrySet())
+                    fresh.set(ord, fresh.ensureSubject(e.getKey()), e.getValue()[0], e.getValue()[1]);
+            });
+            AttendanceTable old = attendanceTable;
+            for (int ord = 0; ord < fresh.size(); ord++) {
+                String reg = fresh.register(ord);
+                if (!sameRow(old, old.ordinal(reg), fresh, ord)) changed.add(reg);
+            }
+            for (int ord = 0; ord < old.size(); ord++) if (fresh.ordinal(old.register(ord)) < 0) changed.add(old.register(ord));
+            if (changed.isEmpty()) return; // e.g. our own compaction rewrote the file
+            attendanceTable = fresh;
+        } finally {
+            attendanceGate.writeLock().unlock();
+        }
+        System.out.println("DataStore: Reloaded attendance, " + changed.size() + " students changed.");
+        fireChange(DATASET_ATTENDANCE, changed);
+    }
+
+    private static boolean sameRow(AttendanceTable a, int ordA, AttendanceTable b, int ordB) {
+        if (ordA < 0) return false;
+        for (String subj : b.subjects()) {
+            int sa = a.subjectOrdinal(subj), sb = b.subjectOrdinal(subj);
+            // values only: attendance.txt cannot tell an unset cell from 0
+            if (sa < 0 || a.present(ordA, sa) != b.present(ordB, sb) || a.total(ordA, sa) != b.total(ordB, sb)) return false;
+        }
+        return a.subjects().size() == b.subjects().size();
+    }
+
+    static void reloadAnnouncements() { reloadAnnouncements(new File(ANNOUNCEMENTS_FILE), new File(EMAILS_FILE)); }
+
+    // the benchmarks pass generated files here to serve a dataset of a given size
+    static void reloadAnnouncements(File announcementsFile, File emailsFile) {
+        announcementViewReady.join();
+        // queued appends are written first, so the files are not read with our own posts missing
+        writes.flush().exceptionally(ex -> null).join();
+        List<String> anns = readAnnouncements(announcementsFile);
+        List<Email> mails = new ArrayList<>();
+        List<String> mailAnns = new ArrayList<>();
+        readEmails(emailsFile, mails, mailAnns);
+        synchronized (DataStore.class) {
+            if (anns.equals(announcements) && mailAnns.equals(mailAnnouncements)) return; // e.g. our own append
+            announcements.clear(); announcements.addAll(anns);
+            emails.clear(); emails.addAll(mails);
+            mailAnnouncements.clear(); mailAnnouncements.addAll(mailAnns);
+            rebuildAnnouncementView();
+        }
+        System.out.println("DataStore: Reloaded announcements.");
+        fireChange(DATASET_ANNOUNCEMENTS, Collections.emptyList());
+    }
+
     // ---------------- Announcements ----------------
+    /** Posted announcements followed by mail-derived ones; an immutable snapshot, rebuilt only on change. */
     public static List<String> getAnnouncements() {
-        List<String> out = new ArrayList<>(announcements);
-        String[] kws = {"hackathon","participate","club","event","deadline","last day","selected"};
-        for (Email em : emails) {
-            String comb = (em.subj + " " + em.body).toLowerCase();
-            for (String kw : kws) {
-                if (comb.contains(kw)) {
-                    String summary = em.subj.isEmpty() ? (em.body.length()>60?em.body.substring(0,60)+"...":em.body) : em.subj;
-                    out.add("[Mail] " + summary + (em.date.isEmpty() ? "" : " ("+em.date+")"));
-                    break;
-                }
-            }
+        if (remote != null) return remote.getAnnouncements();
+        announcementViewReady.join();
+        return announcementView;
+    }
+
+    /** Incremented whenever the announcement view changes. */
+    public static long getAnnouncementsVersion() {
+        if (remote != null) return remote.getAnnouncementsVersion();
+        announcementViewReady.join();
+        return announcementsVersion;
+    }
+
+    /** Shows the announcement at once; the future completes when it is in announcements.txt on disk. */
+    public static CompletableFuture<Void> addAnnouncement(String text) {
+        if (text==null || text.trim().isEmpty()) return CompletableFuture.completedFuture(null);
+        if (remote != null) return CompletableFuture.runAsync(() -> remote.addAnnouncement(text.trim()), remoteWriter);
+        announcementViewReady.join(); // outside the lock: the initial view build needs it
+        CompletableFuture<Void> saved;
+        synchronized (DataStore.class) {
+            announcements.add(text.trim());
+            saved = writes.append(new File(ANNOUNCEMENTS_FILE), text.trim());
+            rebuildAnnouncementView();
         }
-        return out;
+        fireChange(DATASET_ANNOUNCEMENTS, Collections.emptyList());
+        return saved;
+    }
+
+    /** New mail arrived: store it in emails.txt and classify it once. */
+    public static CompletableFuture<Void> addEmail(String subj, String body, String date) {
+        if (remote != null) { System.out.println("DataStore: mail is ingested on the server, not by clients."); return CompletableFuture.completedFuture(null); }
+        announcementViewReady.join();
+        Email em = new Email(subj == null ? "" : subj.trim(), body == null ? "" : body.trim(), date == null ? "" : date.trim());
+        CompletableFuture<Void> saved;
+        synchronized (DataStore.class) {
+            saved = writes.append(new File(EMAILS_FILE), em.subj + "|" + em.body + "|" + em.date);
+            int before = mailAnnouncements.size();
+            ingestEmail(em, emails, mailAnnouncements);
+            if (mailAnnouncements.size() == before) return saved;
+            rebuildAnnouncementView();
+        }
+        fireChange(DATASET_ANNOUNCEMENTS, Collections.emptyList());
+        return saved;
     }
 
-    public static synchronized void addAnnouncement(String text) {
-        if (text==null || text.trim().isEmpty()) return;
-        announcements.add(text.trim());
-        try (PrintWriter pw = new PrintWriter(new FileWriter(ANNOUNCEMENTS_FILE, true))) { pw.println(text.trim()); }
-        catch (IOException ex) { ex.printStackTrace(); }
+    private static synchronized void rebuildAnnouncementView() {
+        List<String> view = new ArrayList<>(announcements.size() + mailAnnouncements.size());
+        view.addAll(announcements);
+        view.addAll(mailAnnouncements);
+        announcementView = Collections.unmodifiableList(view);
+        announcementsVersion++;
     }
 
     public static String getRemarkFor(int total) {
@@ -286,13 +1012,16 @@ private static int getDefaultTotal(String subj) {
 
     // ---------------- Auth helpers ----------------
     public static boolean verifyStudent(String reg, String password) {
-        Student s = students.get(reg);
-        if (s == null) return false;
+        if (remote != null) return remote.verifyStudent(reg, password);
+        marksReady.join();
+        boolean known = archive != null ? archive.student(reg) != null : marks.contains(reg); // marks state is empty in archive mode
+        if (!known) return false;
         String defaultPass = reg.length() >= 4 ? reg.substring(reg.length()-4) : reg;
         return password.equals(defaultPass);
     }
 
     public static boolean verifyTeacher(String email, String password) {
+        if (remote != null) return remote.verifyTeacher(email, password);
         if (email == null) return false;
         if (!email.toLowerCase().endsWith("@licet.ac.in")) return false;
         return "teacher123".equals(password);
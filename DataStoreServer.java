@@ -0,0 +1,369 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataStoreServer: headless entry point that hosts one DataStore behind a JSON HTTP API,
+ * so every client machine sees the same data and each other's writes.
+ *
+ *   POST /api/login/student      {"reg","password"}            -> {"ok","name","token"}
+ *   POST /api/login/teacher      {"email","password"}          -> {"ok","token"}
+ *   POST /api/logout
+ *   GET  /api/students[?q=&limit=]                             -> ["reg", ...]
+ *   GET  /api/students/find?name=                              -> {"reg"} or 404
+ *   GET  /api/students/{reg}                                   -> {"reg","name","marks":{IA:{subj:[concept,cat,total]}}}
+ *   GET  /api/attendance                                       -> {reg:{"present":{},"total":{}}, ...}
+ *   GET  /api/attendance/{reg}                                 -> {"present":{},"total":{}} or 404
+ *   POST /api/attendance/{reg}   {"present":{},"total":{}}
+ *   GET  /api/attendance/{reg}?from=&to=                       -> {"present":{},"total":{}} from the session log
+ *   POST /api/attendance/batch   {reg:{subj:present}}          -> {"errors":[...]}
+ *   POST /api/attendance/session {"date","period","subject","marks":{reg:bool}} -> {"errors":[...]}
+ *   GET  /api/announcements                                    -> {"version","items":[...]}
+ *   POST /api/announcements      {"text"}
+ *   GET  /api/analytics/{ia}/{subject}?reg=                    -> {"rank","of","percentile"} or 404
+ *   GET  /api/analytics/{ia}/{subject}?bucket=10               -> {"histogram":[...]}
+ *   GET  /api/atrisk[?subject=]                                -> [{"reg","present","total"}, ...] lowest first
+ *   GET  /api/version                                          -> {dataset: version}
+ *
+ * Every endpoint but login needs "Authorization: Bearer <token>" from a login (401 without one).
+ * Teachers may call everything; a student session may only read class-wide announcements and
+ * histograms and their own marks, attendance and standing (403 otherwise). Sessions expire after
+ * -Dclassconnect.server.sessionMinutes (default 480) without use.
+ * Requests run on virtual threads when the JDK has them (21+), else on a fixed platform pool.
+ * Usage: java DataStoreServer [port]   (default 8085, or -Dclassconnect.server.port;
+ *        -Dclassconnect.server.bind=127.0.0.1 listens on one interface instead of all)
+ */
+public class DataStoreServer {
+    private final HttpServer http;
+    private final ExecutorService workers;
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>(); // token -> who logged in
+    private final SecureRandom random = new SecureRandom();
+    private static final long SESSION_MS = Long.getLong("classconnect.server.sessionMinutes", 480) * 60_000;
+
+    /** A logged-in client: a teacher (reg null) or one student. */
+    private static final class Session {
+        final String reg;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        Session(String reg) { this.reg = reg; }
+
+        boolean teacher() { return reg == null; }
+        boolean mayRead(String registerNo) { return reg == null || reg.equals(registerNo); }
+    }
+
+    public DataStoreServer(int port) throws IOException {
+        String bind = System.getProperty("classconnect.server.bind");
+        http = HttpServer.create(bind == null ? new InetSocketAddress(port) : new InetSocketAddress(InetAddress.getByName(bind), port), 1024);
+        workers = requestExecutor();
+        http.setExecutor(workers);
+        http.createContext("/api/", this::handle);
+        for (String ds : new String[]{DataStore.DATASET_MARKS, DataStore.DATASET_ATTENDANCE, DataStore.DATASET_ANNOUNCEMENTS})
+            versions.put(ds, new AtomicLong());
+        DataStore.addChangeListener((dataset, regs) -> versions.computeIfAbsent(dataset, k -> new AtomicLong()).incrementAndGet());
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("classconnect.server.port", 8085);
+        DataStore.bootstrap();
+        DataStore.startWatching();
+        DataStore.allReady().join();
+        DataStoreServer server = new DataStoreServer(port);
+        server.start();
+        System.out.println("DataStore: serving on port " + port + " (" + server.workers.getClass().getSimpleName() + ")");
+    }
+
+    public void start() { http.start(); }
+
+    public int port() { return http.getAddress().getPort(); }
+
+    public void stop() {
+        http.stop(1);
+        workers.shutdown();
+    }
+
+    /** One virtual thread per request on JDK 21+, looked up reflectively so the code still builds on 17. */
+    static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            // requests are short, so a few hundred platform threads still serve thousands of sessions
+            return Executors.newFixedThreadPool(Integer.getInteger("classconnect.server.threads", 256), DataStore.daemonThreads("http-worker"));
+        }
+    }
+
+    // ---------------- Routing ----------------
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            String[] path = ex.getRequestURI().getRawPath().substring("/api/".length()).split("/");
+            Map<String, String> query = query(ex.getRequestURI().getRawQuery());
+            boolean post = "POST".equals(ex.getRequestMethod());
+            if (!post && !"GET".equals(ex.getRequestMethod())) { send(ex, 405, error("method not allowed")); return; }
+            String raw = post ? readBody(ex) : "";
+            Object body = raw.trim().isEmpty() ? null : Json.parse(raw); // logout has no body
+            String res = path[0], id = path.length > 1 ? decode(path[1]) : null;
+
+            if (res.equals("login")) {
+                if (!post || id == null) { send(ex, 404, error("no such endpoint")); return; }
+                if (id.equals("student")) { send(ex, 200, studentLogin(Json.object(body))); return; }
+                if (id.equals("teacher")) { send(ex, 200, teacherLogin(Json.object(body))); return; }
+                send(ex, 404, error("no such endpoint"));
+                return;
+            }
+            Session who = session(ex);
+            if (who == null) { send(ex, 401, error("log in first")); return; }
+
+            switch (res) {
+                case "logout":
+                    if (!post) break;
+                    sessions.values().remove(who);
+                    send(ex, 200, Collections.singletonMap("ok", true));
+                    return;
+                case "students":
+                    if (post) break;
+                    if (id == null) { require(who.teacher()); send(ex, 200, students(query)); return; }
+                    if (id.equals("find")) {
+                        require(who.teacher());
+                        Optional<String> reg = DataStore.findRegisterByName(query.getOrDefault("name", ""));
+                        send(ex, reg.isPresent() ? 200 : 404, reg.isPresent() ? Collections.singletonMap("reg", reg.get()) : error("no such student"));
+                        return;
+                    }
+                    require(who.mayRead(id));
+                    DataStore.Student s = DataStore.getStudentByRegister(id);
+                    send(ex, s == null ? 404 : 200, s == null ? error("no such student") : student(s));
+                    return;
+                case "attendance":
+                    require(who.teacher() || (!post && id != null && who.mayRead(id)));
+                    if (id == null && !post) { send(ex, 200, allAttendance()); return; }
+                    if ("batch".equals(id) && post) {
+                        Map<String, Map<String, Integer>> batch = new LinkedHashMap<>();
+                        for (Map.Entry<String, Object> e : Json.object(body).entrySet()) batch.put(e.getKey(), Json.intMap(e.getValue()));
+                        send(ex, 200, Collections.singletonMap("errors", DataStore.updateAttendanceBatch(batch)));
+                        return;
+                    }
+                    if ("session".equals(id) && post) { send(ex, 200, Collections.singletonMap("errors", recordSession(Json.object(body)))); return; }
+                    if (id == null) break;
+                    if (!post && (query.containsKey("from") || query.containsKey("to"))) {
+                        DataStore.Attendance r = DataStore.getAttendanceBetween(id, date(query.get("from")), date(query.get("to")));
+                        send(ex, r == null ? 404 : 200, r == null ? error("no such student") : attendance(r));
+                        return;
+                    }
+                    if (post) {
+                        Map<String, Object> b = Json.object(body);
+                        Map<String, Integer> present = Json.intMap(b.get("present")), total = Json.intMap(b.get("total"));
+                        List<String> errors = DataStore.checkAttendanceRow(id, present, total);
+                        if (!errors.isEmpty()) { send(ex, 400, Collections.singletonMap("errors", errors)); return; }
+                        DataStore.updateAttendance(id, present, total).join(); // ack once durable
+                        send(ex, 200, Collections.singletonMap("ok", true));
+                        return;
+                    }
+                    DataStore.Attendance a = DataStore.getAttendance(id);
+                    send(ex, a == null ? 404 : 200, a == null ? error("no attendance record") : attendance(a));
+                    return;
+                case "announcements":
+                    if (post) {
+                        require(who.teacher());
+                        DataStore.addAnnouncement(Json.string(Json.object(body).get("text"))).join();
+                        send(ex, 200, Collections.singletonMap("ok", true));
+                        return;
+                    }
+                    Map<String, Object> anns = new LinkedHashMap<>();
+                    anns.put("version", DataStore.getAnnouncementsVersion());
+                    anns.put("items", DataStore.getAnnouncements());
+                    send(ex, 200, anns);
+                    return;
+                case "analytics":
+                    if (post || path.length < 3) break;
+                    String subject = decode(path[2]);
+                    if (query.containsKey("reg")) {
+                        require(who.mayRead(query.get("reg")));
+                        MarksAnalytics.Standing st = DataStore.getStanding(query.get("reg"), id, subject);
+                        send(ex, st == null ? 404 : 200, st == null ? error("no mark for that student") : standing(st));
+                        return;
+                    }
+                    int[] histogram = DataStore.getMarksHistogram(id, subject, Integer.parseInt(query.getOrDefault("bucket", "10")));
+                    List<Integer> buckets = new ArrayList<>();
+                    for (int count : histogram) buckets.add(count);
+                    send(ex, 200, Collections.singletonMap("histogram", buckets));
+                    return;
+                case "atrisk":
+                    if (post) break;
+                    require(who.teacher());
+                    List<Map<String, Object>> risks = new ArrayList<>();
+                    for (AtRiskIndex.Risk r : DataStore.getAtRiskStudents(query.get("subject"))) {
+                        Map<String, Object> o = new LinkedHashMap<>();
+                        o.put("reg", r.registerNo);
+                        o.put("present", r.present);
+                        o.put("total", r.total);
+                        risks.add(o);
+                    }
+                    send(ex, 200, risks);
+                    return;
+                case "version":
+                    Map<String, Object> v = new LinkedHashMap<>();
+                    for (Map.Entry<String, AtomicLong> e : versions.entrySet()) v.put(e.getKey(), e.getValue().get());
+                    send(ex, 200, v);
+                    return;
+                default:
+            }
+            send(ex, 404, error("no such endpoint"));
+        } catch (SecurityException denied) {
+            send(ex, 403, error(denied.getMessage()));
+        } catch (IllegalArgumentException bad) {
+            send(ex, 400, error(bad.getMessage()));
+        } catch (RuntimeException fail) {
+            // details stay in the server log; callers get no class names, messages or paths
+            System.out.println("DataStore: " + ex.getRequestMethod() + " " + ex.getRequestURI().getPath() + " failed");
+            fail.printStackTrace();
+            send(ex, 500, error("internal server error"));
+        } finally {
+            ex.close();
+        }
+    }
+
+    // ---------------- Sessions ----------------
+    private Map<String, Object> studentLogin(Map<String, Object> b) {
+        String reg = Json.string(b.get("reg")), pass = Json.string(b.get("password"));
+        Map<String, Object> out = new LinkedHashMap<>();
+        boolean ok = reg != null && pass != null && DataStore.verifyStudent(reg, pass);
+        out.put("ok", ok);
+        if (ok) {
+            out.put("name", DataStore.getStudentByRegister(reg).name);
+            out.put("token", newSession(reg));
+        }
+        return out;
+    }
+
+    private Map<String, Object> teacherLogin(Map<String, Object> b) {
+        boolean ok = DataStore.verifyTeacher(Json.string(b.get("email")), Json.string(b.get("password")));
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("ok", ok);
+        if (ok) out.put("token", newSession(null));
+        return out;
+    }
+
+    private String newSession(String reg) {
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(old -> now - old.lastUsed > SESSION_MS); // sessions nobody came back to
+        sessions.put(token, new Session(reg));
+        return token;
+    }
+
+    // the caller's live session, or null; expired sessions are dropped as they are met
+    private Session session(HttpExchange ex) {
+        String auth = ex.getRequestHeaders().getFirst("Authorization");
+        if (auth == null || !auth.startsWith("Bearer ")) return null;
+        String token = auth.substring("Bearer ".length()).trim();
+        Session s = sessions.get(token);
+        if (s == null) return null;
+        long now = System.currentTimeMillis();
+        if (now - s.lastUsed > SESSION_MS) { sessions.remove(token); return null; }
+        s.lastUsed = now;
+        return s;
+    }
+
+    private static void require(boolean allowed) {
+        if (!allowed) throw new SecurityException("not allowed for this login");
+    }
+
+    // ---------------- Endpoints ----------------
+
+    private static Collection<String> students(Map<String, String> query) {
+        String q = query.get("q");
+        if (q == null || q.trim().isEmpty()) return DataStore.getAllRegisterNos();
+        return DataStore.searchStudents(q, Integer.parseInt(query.getOrDefault("limit", "50")));
+    }
+
+    static Map<String, Object> student(DataStore.Student s) {
+        Map<String, Object> marks = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, DataStore.Marks>> ia : s.iaMarks.entrySet()) {
+            Map<String, Object> subjects = new LinkedHashMap<>();
+            for (Map.Entry<String, DataStore.Marks> m : ia.getValue().entrySet())
+                subjects.put(m.getKey(), Arrays.asList(m.getValue().concept, m.getValue().cat, m.getValue().total));
+            marks.put(ia.getKey(), subjects);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("reg", s.registerNo);
+        out.put("name", s.name);
+        out.put("marks", marks);
+        return out;
+    }
+
+    static Map<String, Object> attendance(DataStore.Attendance a) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("present", a.presentPerSubject);
+        out.put("total", a.totalPerSubject);
+        return out;
+    }
+
+    static Map<String, Object> standing(MarksAnalytics.Standing st) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("rank", st.rank);
+        out.put("of", st.classSize);
+        out.put("percentile", st.percentile);
+        return out;
+    }
+
+    private static List<String> recordSession(Map<String, Object> b) {
+        Map<String, Boolean> marks = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> e : Json.object(b.get("marks")).entrySet()) marks.put(e.getKey(), Boolean.TRUE.equals(e.getValue()));
+        Integer period = Json.integer(b.get("period"));
+        if (period == null) throw new IllegalArgumentException("period is required");
+        return DataStore.recordSession(date(Json.string(b.get("date"))), period, Json.string(b.get("subject")), marks);
+    }
+
+    private static Map<String, Object> allAttendance() {
+        AttendanceTable t = DataStore.getAttendanceTable();
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (int ord = 0; ord < t.size(); ord++) {
+            DataStore.Attendance a = DataStore.getAttendance(t.register(ord)); // per-student lock: no torn rows
+            if (a != null) out.put(t.register(ord), attendance(a));
+        }
+        return out;
+    }
+
+    // ---------------- Plumbing ----------------
+    private static Map<String, Object> error(String message) { return Collections.singletonMap("error", message); }
+
+    private static void send(HttpExchange ex, int status, Object json) throws IOException {
+        byte[] bytes = Json.write(json).getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) { out.write(bytes); }
+    }
+
+    private static String readBody(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) { return new String(in.readAllBytes(), StandardCharsets.UTF_8); }
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> out = new HashMap<>();
+        if (raw == null) return out;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) out.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+        }
+        return out;
+    }
+
+    private static LocalDate date(String iso) {
+        if (iso == null || iso.isEmpty()) return null;
+        try { return LocalDate.parse(iso); }
+        catch (DateTimeParseException ex) { throw new IllegalArgumentException("dates are yyyy-mm-dd, got " + iso); }
+    }
+
+    private static String decode(String s) { return URLDecoder.decode(s, StandardCharsets.UTF_8); }
+}
@@ -0,0 +1,63 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataWatcher: background WatchService loop over the data directory.
+ * Events are collected until the directory has been quiet for QUIET_MS (editors and copy
+ * tools write a file in several steps), then the handler of each changed file runs once.
+ * Handlers run on the watcher thread, so a reload never blocks the EDT or readers.
+ */
+public class DataWatcher {
+    private static final long QUIET_MS = 300;
+
+    private final Path dir;
+    private final Map<String, Runnable> handlers; // file name -> reload action
+    private Thread thread;
+
+    public DataWatcher(Path dir, Map<String, Runnable> handlers) {
+        this.dir = dir;
+        this.handlers = new HashMap<>(handlers);
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+        thread = new Thread(this::run, "data-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (thread != null) thread.interrupt();
+        thread = null;
+    }
+
+    private void run() {
+        try (WatchService ws = dir.getFileSystem().newWatchService()) {
+            dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            Set<String> pending = new LinkedHashSet<>();
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = pending.isEmpty() ? ws.take() : ws.poll(QUIET_MS, TimeUnit.MILLISECONDS);
+                if (key == null) { // quiet period over: reload each changed file once
+                    for (String name : pending) {
+                        try { handlers.get(name).run(); }
+                        catch (RuntimeException ex) { ex.printStackTrace(); }
+                    }
+                    pending.clear();
+                    continue;
+                }
+                for (WatchEvent<?> ev : key.pollEvents()) {
+                    if (ev.kind() == StandardWatchEventKinds.OVERFLOW) { pending.addAll(handlers.keySet()); continue; }
+                    String name = ((Path) ev.context()).getFileName().toString();
+                    if (handlers.containsKey(name)) pending.add(name);
+                }
+                if (!key.reset()) break; // directory no longer accessible
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            System.out.println("DataStore: file watching unavailable (" + ex + ")");
+        }
+    }
+}
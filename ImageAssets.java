@@ -0,0 +1,121 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.*;
+import javax.imageio.ImageIO;
+import javax.swing.*;
+
+/**
+ * ImageAssets: one shared cache for the image files the frames show.
+ * Each file is decoded once, on a background thread, and only a copy no larger than the screen
+ * is kept (the full-resolution decode is dropped right away); smaller variants are down-sampled
+ * from that copy on demand and cached too. Frames get futures or icons that paint nothing until
+ * the image is ready, so building a frame never waits for a decode on the EDT.
+ * Missing or unreadable files complete with null, which callers treat as "no image", as before.
+ */
+public final class ImageAssets {
+    // own daemon threads rather than DataStore.daemonThreads, so loading an image never starts the data loaders
+    private static final ExecutorService decoder = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "image-decoder");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final Map<String, CompletableFuture<BufferedImage>> cache = new ConcurrentHashMap<>();
+
+    private ImageAssets() {}
+
+    /** Starts decoding files that the first frames will need; call before building them. */
+    public static void preload(String... files) {
+        for (String f : files) image(f);
+    }
+
+    /** The file's image, down-sampled to fit the screen if it is larger; null if unreadable. */
+    public static CompletableFuture<BufferedImage> image(String file) {
+        return cache.computeIfAbsent(file, f -> CompletableFuture.supplyAsync(() -> {
+            BufferedImage full = decode(f);
+            if (full == null) return null;
+            Dimension screen = screenSize();
+            return fitWithin(full, screen.width, screen.height);
+        }, decoder));
+    }
+
+    /** A variant no larger than maxW x maxH (aspect ratio kept), derived from the screen-sized copy. */
+    public static CompletableFuture<BufferedImage> image(String file, int maxW, int maxH) {
+        return cache.computeIfAbsent(file + "@" + maxW + "x" + maxH,
+                k -> image(file).thenApplyAsync(img -> img == null ? null : fitWithin(img, maxW, maxH), decoder));
+    }
+
+    /** An icon that is empty (0x0) until the image is ready, then resizes and repaints its owner. */
+    public static Icon icon(String file, JComponent owner) {
+        return new AsyncIcon(image(file), owner);
+    }
+
+    // ---------------- Decoding and down-sampling ----------------
+    static BufferedImage decode(String file) {
+        try {
+            return ImageIO.read(new File(file));
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private static Dimension screenSize() {
+        if (GraphicsEnvironment.isHeadless()) return new Dimension(3840, 2160);
+        Rectangle r = new Rectangle();
+        for (GraphicsDevice d : GraphicsEnvironment.getLocalGraphicsEnvironment().getScreenDevices())
+            r = r.union(d.getDefaultConfiguration().getBounds()); // a window may be dragged to the largest screen
+        return r.getSize();
+    }
+
+    /**
+     * Returns img itself when it already fits, otherwise a copy scaled down in steps of at most half,
+     * which keeps bilinear filtering from skipping pixels (a single large step looks like nearest-neighbour).
+     */
+    static BufferedImage fitWithin(BufferedImage img, int maxW, int maxH) {
+        double scale = Math.min(1.0, Math.min((double) maxW / img.getWidth(), (double) maxH / img.getHeight()));
+        if (scale >= 1.0) return img;
+        int targetW = Math.max(1, (int) Math.round(img.getWidth() * scale));
+        int targetH = Math.max(1, (int) Math.round(img.getHeight() * scale));
+        int type = img.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage cur = img;
+        int w = img.getWidth(), h = img.getHeight();
+        do {
+            w = Math.max(targetW, w / 2);
+            h = Math.max(targetH, h / 2);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(cur, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            cur = next;
+        } while (w != targetW || h != targetH);
+        return cur;
+    }
+
+    // ---------------- Placeholder icon ----------------
+    private static final class AsyncIcon implements Icon {
+        private volatile BufferedImage img;
+
+        AsyncIcon(CompletableFuture<BufferedImage> future, JComponent owner) {
+            img = future.getNow(null);
+            if (img == null) future.thenAccept(loaded -> {
+                if (loaded == null) return;
+                img = loaded;
+                SwingUtilities.invokeLater(() -> { owner.revalidate(); owner.repaint(); });
+            });
+        }
+
+        @Override public void paintIcon(Component c, Graphics g, int x, int y) {
+            BufferedImage i = img;
+            if (i != null) g.drawImage(i, x, y, null);
+        }
+
+        @Override public int getIconWidth() { BufferedImage i = img; return i == null ? 0 : i.getWidth(); }
+        @Override public int getIconHeight() { BufferedImage i = img; return i == null ? 0 : i.getHeight(); }
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.*;
+
+/**
+ * IntentMatcher: turns a chatbot message into a structured Intent in one pass.
+ * The message is tokenized once on non-alphanumeric boundaries; every token is looked up in
+ * a precompiled token table, so keywords match whole words only ("social" is not "ia") and
+ * the cost per message does not grow with the number of rules or subjects.
+ * New intents plug in through {@link #keyword} / {@link #prefix} without touching the scanner.
+ */
+public class IntentMatcher {
+
+    /** Recognized intents, in the priority order used when a message hits several. */
+    public enum Kind { ATTENDANCE, MARKS, ANNOUNCEMENTS, GREETING, UNKNOWN }
+
+    /** The result of matching one message: the winning intent plus the entities found in it. */
+    public static final class Intent {
+        public final Kind kind;
+        public final String ia;      // "IA1"/"IA2", or null when the message names none
+        public final String subject; // subject code as configured, or null
+        public final int tokens;
+
+        Intent(Kind kind, String ia, String subject, int tokens) {
+            this.kind = kind;
+            this.ia = ia;
+            this.subject = subject;
+            this.tokens = tokens;
+        }
+
+        @Override public String toString() {
+            return kind + (ia != null ? " " + ia : "") + (subject != null ? " " + subject : "");
+        }
+    }
+
+    private final Map<String, Kind> keywords = new HashMap<>();
+    private final Map<String, Kind> prefixes = new LinkedHashMap<>();
+    private final Map<String, String> subjects = new HashMap<>(); // lowercase code -> code
+
+    /** A matcher with the chatbot's built-in vocabulary and the given subject codes. */
+    public static IntentMatcher standard(String... subjectCodes) {
+        IntentMatcher m = new IntentMatcher();
+        m.keyword(Kind.ATTENDANCE, "attendance", "safe", "present", "absent");
+        m.keyword(Kind.MARKS, "marks", "mark", "score", "scores", "internal", "internals");
+        m.prefix(Kind.ANNOUNCEMENTS, "announ");
+        m.keyword(Kind.ANNOUNCEMENTS, "notice", "notices");
+        m.keyword(Kind.GREETING, "hi", "hello", "hey");
+        for (String s : subjectCodes) m.subject(s);
+        return m;
+    }
+
+    /** Maps whole-word tokens to an intent. */
+    public IntentMatcher keyword(Kind kind, String... words) {
+        for (String w : words) keywords.put(w.toLowerCase(Locale.ROOT), kind);
+        return this;
+    }
+
+    /** Maps every token starting with prefix to an intent (e.g. "announ" for announcement/s). */
+    public IntentMatcher prefix(Kind kind, String prefix) {
+        prefixes.put(prefix.toLowerCase(Locale.ROOT), kind);
+        return this;
+    }
+
+    public IntentMatcher subject(String code) {
+        subjects.put(code.toLowerCase(Locale.ROOT), code);
+        return this;
+    }
+
+    public Intent match(String text) {
+        boolean[] hit = new boolean[Kind.values().length];
+        String ia = null, subject = null;
+        boolean bareIa = false; // previous token was "ia", waiting for "1"/"2"
+        int tokens = 0;
+
+        int n = text.length(), i = 0;
+        StringBuilder tok = new StringBuilder(16);
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            if (i == n) break;
+            tok.setLength(0);
+            while (i < n && Character.isLetterOrDigit(text.charAt(i))) tok.append(Character.toLowerCase(text.charAt(i++)));
+            tokens++;
+            String t = tok.toString();
+
+            if (bareIa && (t.equals("1") || t.equals("2"))) ia = "IA" + t;
+            bareIa = false;
+            if (t.length() == 3 && t.startsWith("ia") && (t.charAt(2) == '1' || t.charAt(2) == '2')) {
+                ia = "IA" + t.charAt(2);
+                continue;
+            }
+            if (t.equals("ia")) { bareIa = true; hit[Kind.MARKS.ordinal()] = true; continue; }
+
+            String code = subjects.get(t);
+            if (code != null) { if (subject == null) subject = code; continue; }
+
+            Kind k = keywords.get(t);
+            if (k == null) {
+                for (Map.Entry<String, Kind> p : prefixes.entrySet()) {
+                    if (t.startsWith(p.getKey())) { k = p.getValue(); break; }
+                }
+            }
+            if (k != null) hit[k.ordinal()] = true;
+        }
+        if (ia != null || subject != null) hit[Kind.MARKS.ordinal()] = true;
+
+        for (Kind k : Kind.values()) {
+            if (hit[k.ordinal()]) return new Intent(k, ia, subject, tokens);
+        }
+        return new Intent(Kind.UNKNOWN, ia, subject, tokens);
+    }
+}
@@ -0,0 +1,205 @@
+import java.util.*;
+
+/**
+ * Json: the small JSON subset the server API needs, without a library dependency.
+ * write() accepts Map, Collection, String, Number, Boolean and null; parse() returns
+ * LinkedHashMap / ArrayList / String / Long / Double / Boolean / null.
+ */
+public final class Json {
+    private Json() {}
+
+    public static String write(Object value) {
+        StringBuilder sb = new StringBuilder();
+        write(value, sb);
+        return sb.toString();
+    }
+
+    private static void write(Object v, StringBuilder sb) {
+        if (v == null) sb.append("null");
+        else if (v instanceof String) quote((String) v, sb);
+        else if (v instanceof Number || v instanceof Boolean) sb.append(v);
+        else if (v instanceof Map) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) v).entrySet()) {
+                if (!first) sb.append(',');
+                first = false;
+                quote(String.valueOf(e.getKey()), sb);
+                sb.append(':');
+                write(e.getValue(), sb);
+            }
+            sb.append('}');
+        } else if (v instanceof Collection) {
+            sb.append('[');
+            boolean first = true;
+            for (Object o : (Collection<?>) v) {
+                if (!first) sb.append(',');
+                first = false;
+                write(o, sb);
+            }
+            sb.append(']');
+        } else quote(v.toString(), sb);
+    }
+
+    private static void quote(String s, StringBuilder sb) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    /** Parses one JSON value; throws IllegalArgumentException on malformed input. */
+    public static Object parse(String text) {
+        Parser p = new Parser(text);
+        Object v = p.value();
+        p.skipSpace();
+        if (p.pos != text.length()) throw p.error("trailing characters");
+        return v;
+    }
+
+    // ---------------- Typed accessors for parsed values ----------------
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> object(Object v) {
+        if (v instanceof Map) return (Map<String, Object>) v;
+        throw new IllegalArgumentException("expected a JSON object");
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<Object> array(Object v) {
+        if (v instanceof List) return (List<Object>) v;
+        throw new IllegalArgumentException("expected a JSON array");
+    }
+
+    public static String string(Object v) { return v == null ? null : v.toString(); }
+
+    public static Integer integer(Object v) {
+        if (v == null) return null;
+        if (v instanceof Number) return ((Number) v).intValue();
+        throw new IllegalArgumentException("expected a number, got " + v);
+    }
+
+    /** {"DM": 4, ...} -> Map<String,Integer>; null stays null. */
+    public static Map<String, Integer> intMap(Object v) {
+        if (v == null) return null;
+        Map<String, Integer> out = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> e : object(v).entrySet()) out.put(e.getKey(), integer(e.getValue()));
+        return out;
+    }
+
+    private static final class Parser {
+        final String s;
+        int pos;
+
+        Parser(String s) { this.s = s; }
+
+        Object value() {
+            skipSpace();
+            if (pos >= s.length()) throw error("unexpected end");
+            char c = s.charAt(pos);
+            switch (c) {
+                case '{': return object();
+                case '[': return array();
+                case '"': return string();
+                case 't': literal("true"); return Boolean.TRUE;
+                case 'f': literal("false"); return Boolean.FALSE;
+                case 'n': literal("null"); return null;
+                default: return number();
+            }
+        }
+
+        Map<String, Object> object() {
+            Map<String, Object> out = new LinkedHashMap<>();
+            pos++;
+            skipSpace();
+            if (peek('}')) { pos++; return out; }
+            while (true) {
+                skipSpace();
+                if (!peek('"')) throw error("expected a key");
+                String key = string();
+                skipSpace();
+                expect(':');
+                out.put(key, value());
+                skipSpace();
+                if (peek(',')) { pos++; continue; }
+                expect('}');
+                return out;
+            }
+        }
+
+        List<Object> array() {
+            List<Object> out = new ArrayList<>();
+            pos++;
+            skipSpace();
+            if (peek(']')) { pos++; return out; }
+            while (true) {
+                out.add(value());
+                skipSpace();
+                if (peek(',')) { pos++; continue; }
+                expect(']');
+                return out;
+            }
+        }
+
+        String string() {
+            pos++; // opening quote
+            StringBuilder sb = new StringBuilder();
+            while (pos < s.length()) {
+                char c = s.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') { sb.append(c); continue; }
+                if (pos >= s.length()) break;
+                char e = s.charAt(pos++);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > s.length()) throw error("bad \\u escape");
+                        sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: sb.append(e);
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        Object number() {
+            int start = pos;
+            while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) pos++;
+            String n = s.substring(start, pos);
+            if (n.isEmpty()) throw error("unexpected character");
+            try {
+                return n.indexOf('.') < 0 && n.indexOf('e') < 0 && n.indexOf('E') < 0 ? (Object) Long.parseLong(n) : (Object) Double.parseDouble(n);
+            } catch (NumberFormatException ex) {
+                throw error("bad number " + n);
+            }
+        }
+
+        void literal(String word) {
+            if (!s.startsWith(word, pos)) throw error("unexpected token");
+            pos += word.length();
+        }
+
+        void skipSpace() { while (pos < s.length() && s.charAt(pos) <= ' ') pos++; }
+        boolean peek(char c) { return pos < s.length() && s.charAt(pos) == c; }
+        void expect(char c) {
+            if (!peek(c)) throw error("expected '" + c + "'");
+            pos++;
+        }
+        IllegalArgumentException error(String why) { return new IllegalArgumentException("JSON at " + pos + ": " + why); }
+    }
+}
@@ -0,0 +1,74 @@
+import java.util.*;
+
+/**
+ * KeywordMatcher: Aho-Corasick automaton over a fixed keyword set.
+ * One left-to-right pass over the text finds whether any keyword occurs, regardless of
+ * how many keywords there are. Matching is case-insensitive without copying the text.
+ */
+public class KeywordMatcher {
+    private final List<Map<Character, Integer>> go = new ArrayList<>();
+    private final List<Integer> fail = new ArrayList<>();
+    private final List<Boolean> terminal = new ArrayList<>();
+    private final List<String> keywords;
+
+    public KeywordMatcher(Collection<String> words) {
+        List<String> kws = new ArrayList<>();
+        newState();
+        for (String w : words) {
+            String k = w.trim().toLowerCase(Locale.ROOT);
+            if (k.isEmpty()) continue;
+            kws.add(k);
+            int s = 0;
+            for (int i = 0; i < k.length(); i++) {
+                Integer nx = go.get(s).get(k.charAt(i));
+                if (nx == null) { nx = newState(); go.get(s).put(k.charAt(i), nx); }
+                s = nx;
+            }
+            terminal.set(s, true);
+        }
+        keywords = Collections.unmodifiableList(kws);
+
+        // breadth-first failure links; a state is terminal if any suffix of it is
+        Deque<Integer> queue = new ArrayDeque<>(go.get(0).values());
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            for (Map.Entry<Character, Integer> e : go.get(s).entrySet()) {
+                int t = e.getValue();
+                int f = fail.get(s);
+                while (f > 0 && !go.get(f).containsKey(e.getKey())) f = fail.get(f);
+                Integer via = go.get(f).get(e.getKey());
+                int link = via != null && via != t ? via : 0;
+                fail.set(t, link);
+                if (terminal.get(link)) terminal.set(t, true);
+                queue.add(t);
+            }
+        }
+    }
+
+    /** Parses a comma-separated keyword list (used for the configurable mail keyword set). */
+    public static KeywordMatcher of(String commaSeparated) {
+        return new KeywordMatcher(Arrays.asList(commaSeparated.split(",")));
+    }
+
+    public List<String> keywords() { return keywords; }
+
+    /** True when any keyword occurs in the text. */
+    public boolean matches(CharSequence text) {
+        int s = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            Integer nx;
+            while ((nx = go.get(s).get(c)) == null && s != 0) s = fail.get(s);
+            s = nx == null ? 0 : nx;
+            if (terminal.get(s)) return true;
+        }
+        return false;
+    }
+
+    private int newState() {
+        go.add(new HashMap<>());
+        fail.add(0);
+        terminal.add(false);
+        return go.size() - 1;
+    }
+}
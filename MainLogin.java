@@ -14,13 +14,7 @@ public class MainLogin extends JFrame {
         setLocationRelativeTo(null);
 
         // background panel with image (if present)
-        JPanel background = new JPanel() {
-            Image bg = new ImageIcon("college_bg.jpeg").getImage();
-            @Override protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                g.drawImage(bg, 0, 0, getWidth(), getHeight(), this);
-            }
-        };
+        JPanel background = new BackgroundPanel("college_bg.jpeg"); // scaled once per resize, not per repaint
         background.setLayout(new GridBagLayout());
         setContentPane(background);
 
@@ -31,7 +25,8 @@ public class MainLogin extends JFrame {
 
         // logo
         try {
-            JLabel logo = new JLabel(new ImageIcon("college_logo.png"));
+            JLabel logo = new JLabel();
+            logo.setIcon(ImageAssets.icon("college_logo.png", logo));
             c.gridx=0; c.gridy=0; c.gridwidth=2;
             main.add(logo, c);
             c.gridwidth=1;
@@ -83,6 +78,18 @@ public class MainLogin extends JFrame {
             }
 
 
+            // marks are still loading in the background: retry this click once they are ready
+            if (isStudent && !DataStore.marksReady().isDone()) {
+                btnLogin.setEnabled(false);
+                btnLogin.setText("Loading...");
+                DataStore.marksReady().thenRun(() -> SwingUtilities.invokeLater(() -> {
+                    btnLogin.setText("Login");
+                    btnLogin.setEnabled(true);
+                    btnLogin.doClick();
+                }));
+                return;
+            }
+
             if (isStudent) {
                 if (DataStore.verifyStudent(reg, pass)) {
                     DataStore.Student s = DataStore.getStudentByRegister(reg);
@@ -108,5 +115,10 @@ public class MainLogin extends JFrame {
         setVisible(true);
     }
 
-    public static void main(String[] args) { SwingUtilities.invokeLater(MainLogin::new); }
+    public static void main(String[] args) {
+        DataStore.bootstrap(); // start parsing data files while the login frame is built
+        ImageAssets.preload("college_bg.jpeg", "college_logo.png"); // decoded off the EDT, shared by every frame
+        DataStore.startWatching(); // pick up new marks/attendance/announcement files without a restart
+        SwingUtilities.invokeLater(MainLogin::new);
+    }
 }
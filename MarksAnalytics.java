@@ -0,0 +1,172 @@
+import java.util.*;
+
+/**
+ * MarksAnalytics: class-wide standing for marks, per (IA, subject).
+ * Each (IA, subject) column keeps a Fenwick tree of counts over total-mark values, so rank,
+ * percentile, quantiles and histograms come from prefix counts in O(log V) (V = highest mark,
+ * about 100) instead of a scan over every student. The trees are built on first use and then
+ * kept up to date from DataStore change events: a marks reload removes and re-adds only the
+ * students it reports as changed. Ties share a rank (two students on 90 are both rank k).
+ */
+public class MarksAnalytics implements DataStore.ChangeListener {
+    private static final MarksAnalytics SHARED = new MarksAnalytics();
+    static { DataStore.addChangeListener(SHARED); }
+
+    private final Map<String, Column> columns = new HashMap<>(); // "IA1|DBMS" -> column
+    private boolean built;
+
+    /** The instance DataStore answers from, registered for change events. */
+    public static MarksAnalytics shared() { return SHARED; }
+
+    /** A student's place in one (IA, subject) column. */
+    public static final class Standing {
+        public final int rank, classSize;
+        public final double percentile; // share of the class scoring at or below this student
+
+        public Standing(int rank, int classSize, double percentile) {
+            this.rank = rank;
+            this.classSize = classSize;
+            this.percentile = percentile;
+        }
+
+        @Override public String toString() { return String.format("rank %d/%d (%.0f%%)", rank, classSize, percentile); }
+    }
+
+    // ---------------- Queries ----------------
+    /** Null when the student has no mark for that IA and subject. */
+    public synchronized Standing standing(String reg, String ia, String subject) {
+        ensureBuilt();
+        Column c = columns.get(ia + "|" + subject);
+        Integer v = c == null ? null : c.values.get(reg);
+        if (v == null) return null;
+        int n = c.values.size(), atMost = c.tree.atMost(v);
+        return new Standing(n - atMost + 1, n, atMost * 100.0 / n);
+    }
+
+    /** Counts per bucket of width bucketWidth: [0, w), [w, 2w), ... across the column range (0..100 unless higher marks exist). */
+    public synchronized int[] histogram(String ia, String subject, int bucketWidth) {
+        ensureBuilt();
+        Column c = columns.get(ia + "|" + subject);
+        if (c == null || bucketWidth <= 0) return new int[0];
+        int buckets = c.tree.maxValue() / bucketWidth + 1;
+        int[] out = new int[buckets];
+        int below = 0;
+        for (int b = 0; b < buckets; b++) {
+            int upTo = c.tree.atMost((b + 1) * bucketWidth - 1);
+            out[b] = upTo - below;
+            below = upTo;
+        }
+        return out;
+    }
+
+    /** Smallest mark with at least q (0..1) of the class at or below it; -1 for an empty column. */
+    public synchronized int quantile(String ia, String subject, double q) {
+        ensureBuilt();
+        Column c = columns.get(ia + "|" + subject);
+        if (c == null || c.values.isEmpty()) return -1;
+        return c.tree.smallestWithAtLeast(Math.max(1, (int) Math.ceil(q * c.values.size())));
+    }
+
+    public synchronized int classSize(String ia, String subject) {
+        ensureBuilt();
+        Column c = columns.get(ia + "|" + subject);
+        return c == null ? 0 : c.values.size();
+    }
+
+    // ---------------- Maintenance ----------------
+    @Override public void dataChanged(String dataset, Collection<String> registerNos) {
+        if (!DataStore.DATASET_MARKS.equals(dataset)) return;
+        synchronized (this) {
+            if (!built) return; // the first query builds from whatever is current
+            if (registerNos.isEmpty()) { columns.clear(); built = false; return; }
+            for (String reg : registerNos) {
+                for (Column c : columns.values()) c.remove(reg);
+                add(DataStore.getStudentByRegister(reg));
+            }
+        }
+    }
+
+    private void ensureBuilt() {
+        if (built) return;
+        columns.clear();
+        MarksTable t = DataStore.getMarksTable();
+        if (t == null) {
+            for (String reg : DataStore.getAllRegisterNos()) add(DataStore.getStudentByRegister(reg));
+        } else { // scan the packed columns instead of building a Student per register
+            for (String ia : t.ias())
+                for (String subject : t.subjects()) {
+                    String key = ia + "|" + subject;
+                    t.forEachInColumn(ia, subject, (s, concept, cat, total) ->
+                            columns.computeIfAbsent(key, k -> new Column()).put(t.register(s), total));
+                }
+        }
+        built = true;
+    }
+
+    private void add(DataStore.Student s) {
+        if (s == null) return; // removed by the reload
+        for (Map.Entry<String, Map<String, DataStore.Marks>> ia : s.iaMarks.entrySet())
+            for (Map.Entry<String, DataStore.Marks> m : ia.getValue().entrySet())
+                columns.computeIfAbsent(ia.getKey() + "|" + m.getKey(), k -> new Column()).put(s.registerNo, m.getValue().total);
+    }
+
+    private static final class Column {
+        final Map<String, Integer> values = new HashMap<>(); // reg -> total, needed to undo on reload
+        Fenwick tree = new Fenwick(100);
+
+        void put(String reg, int total) {
+            int v = Math.max(0, total);
+            Integer old = values.put(reg, v);
+            if (old != null) tree.add(old, -1);
+            if (v > tree.maxValue()) tree = tree.grow(v);
+            tree.add(v, 1);
+        }
+
+        void remove(String reg) {
+            Integer old = values.remove(reg);
+            if (old != null) tree.add(old, -1);
+        }
+    }
+
+    /** Counts per value 0..max with O(log max) point update and prefix count. */
+    static final class Fenwick {
+        private final int[] tree; // 1-based: value v lives at index v + 1
+
+        Fenwick(int max) { tree = new int[max + 2]; }
+
+        int maxValue() { return tree.length - 2; }
+
+        void add(int value, int delta) {
+            for (int i = value + 1; i < tree.length; i += i & -i) tree[i] += delta;
+        }
+
+        /** How many values are <= value. */
+        int atMost(int value) {
+            int sum = 0;
+            for (int i = Math.min(value + 1, tree.length - 1); i > 0; i -= i & -i) sum += tree[i];
+            return sum;
+        }
+
+        /** Smallest value v with atMost(v) >= k (binary descent over the tree). */
+        int smallestWithAtLeast(int k) {
+            int pos = 0;
+            for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+                if (pos + step < tree.length && tree[pos + step] < k) {
+                    pos += step;
+                    k -= tree[pos];
+                }
+            }
+            return pos; // index pos + 1 holds the answer, i.e. value pos
+        }
+
+        /** A copy that can hold values up to at least max. */
+        Fenwick grow(int max) {
+            Fenwick bigger = new Fenwick(Math.max(max, maxValue() * 2));
+            for (int v = 0; v <= maxValue(); v++) {
+                int count = atMost(v) - (v == 0 ? 0 : atMost(v - 1));
+                if (count != 0) bigger.add(v, count);
+            }
+            return bigger;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * MarksSnapshot: compiled binary copy of Internal_marks.csv, opened with FileChannel.map.
+ * Lookups read straight from the mapped buffer; no Student/Marks object graph is built.
+ *
+ * Layout (big-endian):
+ *   header   magic, version, csv mtime, csv length, csv crc32, #ia, #subjects, #students, #records  (48 bytes)
+ *   names    int heap offset per IA name, then per subject name
+ *   index    per student, sorted by register bytes: regOff, nameOff, firstRecord, recordCount (16 bytes)
+ *   order    int index slot per student in CSV order (keeps getAllRegisterNos ordering)
+ *   records  per mark row: short ia, short subject, int concept, int cat, int total (16 bytes)
+ *   heap     strings as short length + UTF-8 bytes
+ * The snapshot is stale when the CSV's mtime/length differ and its crc32 no longer matches.
+ */
+public class MarksSnapshot {
+    public static final String SNAPSHOT_FILE = "Internal_marks.bin";
+    private static final int MAGIC = 0x43434d4b; // "CCMK"
+    private static final int VERSION = 1;
+    private static final int HEADER = 48, ENTRY = 16, RECORD = 16;
+
+    private final MappedByteBuffer buf;
+    private final String[] iaNames, subjectNames;
+    private final int students, records;
+    private final int indexPos, orderPos, recordPos, heapPos;
+
+    private MarksSnapshot(MappedByteBuffer buf) {
+        this.buf = buf;
+        int ias = buf.getInt(32), subjects = buf.getInt(36);
+        students = buf.getInt(40);
+        records = buf.getInt(44);
+        indexPos = HEADER + 4 * (ias + subjects);
+        orderPos = indexPos + ENTRY * students;
+        recordPos = orderPos + 4 * students;
+        heapPos = recordPos + RECORD * records;
+        iaNames = new String[ias];
+        subjectNames = new String[subjects];
+        for (int i = 0; i < ias; i++) iaNames[i] = string(buf.getInt(HEADER + 4 * i));
+        for (int i = 0; i < subjects; i++) subjectNames[i] = string(buf.getInt(HEADER + 4 * (ias + i)));
+    }
+
+    // ---------------- Open / compile ----------------
+
+    /** Maps the snapshot if it exists and still matches the CSV; returns null otherwise. */
+    public static MarksSnapshot openIfFresh(File csv, File bin) {
+        if (!csv.exists() || !bin.exists()) return null;
+        try (FileChannel ch = FileChannel.open(bin.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer b = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (ch.size() < HEADER || b.getInt(0) != MAGIC || b.getInt(4) != VERSION) return null;
+            if (b.getLong(8) != csv.lastModified() || b.getLong(16) != csv.length()) {
+                if (b.getLong(24) != crc(csv)) return null;
+                // same content, new mtime (copied/touched): remember the new mtime and keep using it
+                try (RandomAccessFile raf = new RandomAccessFile(bin, "rw")) { raf.seek(8); raf.writeLong(csv.lastModified()); }
+            }
+            return new MarksSnapshot(b);
+        } catch (IOException | RuntimeException ex) {
+            System.out.println("DataStore: ignoring unreadable marks snapshot (" + ex + ")");
+            return null;
+        }
+    }
+
+    /** Compiles the parsed students into a snapshot file stamped with the CSV's mtime, length and crc. */
+    public static void write(File csv, File bin, Map<String, DataStore.Student> students) throws IOException {
+        List<String> ias = new ArrayList<>(), subjects = new ArrayList<>();
+        Map<String, Integer> iaOrd = new HashMap<>(), subjOrd = new HashMap<>();
+        for (DataStore.Student s : students.values())
+            for (Map.Entry<String, Map<String, DataStore.Marks>> ia : s.iaMarks.entrySet()) {
+                iaOrd.computeIfAbsent(ia.getKey(), k -> { ias.add(k); return ias.size() - 1; });
+                for (String subj : ia.getValue().keySet())
+                    subjOrd.computeIfAbsent(subj, k -> { subjects.add(k); return subjects.size() - 1; });
+            }
+
+        List<DataStore.Student> csvOrder = new ArrayList<>(students.values());
+        Integer[] sorted = new Integer[csvOrder.size()];
+        for (int i = 0; i < sorted.length; i++) sorted[i] = i;
+        Arrays.sort(sorted, (x, y) -> compareBytes(utf8(csvOrder.get(x).registerNo), utf8(csvOrder.get(y).registerNo)));
+
+        ByteArrayOutputStream heap = new ByteArrayOutputStream();
+        DataOutputStream hp = new DataOutputStream(heap);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+
+        for (String ia : ias) out.writeInt(putString(hp, heap, ia));
+        for (String subj : subjects) out.writeInt(putString(hp, heap, subj));
+
+        int[] slotOf = new int[sorted.length];
+        ByteArrayOutputStream recs = new ByteArrayOutputStream();
+        DataOutputStream rp = new DataOutputStream(recs);
+        int recordCount = 0;
+        for (int slot = 0; slot < sorted.length; slot++) {
+            DataStore.Student s = csvOrder.get(sorted[slot]);
+            slotOf[sorted[slot]] = slot;
+            int first = recordCount;
+            for (Map.Entry<String, Map<String, DataStore.Marks>> ia : s.iaMarks.entrySet())
+                for (Map.Entry<String, DataStore.Marks> m : ia.getValue().entrySet()) {
+                    rp.writeShort(iaOrd.get(ia.getKey()));
+                    rp.writeShort(subjOrd.get(m.getKey()));
+                    rp.writeInt(m.getValue().concept);
+                    rp.writeInt(m.getValue().cat);
+                    rp.writeInt(m.getValue().total);
+                    recordCount++;
+                }
+            out.writeInt(putString(hp, heap, s.registerNo));
+            out.writeInt(putString(hp, heap, s.name == null ? "" : s.name));
+            out.writeInt(first);
+            out.writeInt(recordCount - first);
+        }
+        for (int slot : slotOf) out.writeInt(slot);
+
+        Path tmp = Paths.get(bin.getPath() + ".tmp");
+        try (DataOutputStream f = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            f.writeInt(MAGIC);
+            f.writeInt(VERSION);
+            f.writeLong(csv.lastModified());
+            f.writeLong(csv.length());
+            f.writeLong(crc(csv));
+            f.writeInt(ias.size());
+            f.writeInt(subjects.size());
+            f.writeInt(sorted.length);
+            f.writeInt(recordCount);
+            body.writeTo(f);
+            recs.writeTo(f);
+            heap.writeTo(f);
+        }
+        Files.move(tmp, bin.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // ---------------- Queries ----------------
+    public int studentCount() { return students; }
+
+    /** Index slot of the i-th student in CSV order. */
+    public int slotInCsvOrder(int i) { return buf.getInt(orderPos + 4 * i); }
+
+    /** Binary search over the register index; returns the slot or -1. */
+    public int find(String reg) {
+        if (reg == null) return -1;
+        byte[] key = utf8(reg);
+        int lo = 0, hi = students - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compareHeap(buf.getInt(indexPos + ENTRY * mid), key);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    public String register(int slot) { return string(buf.getInt(indexPos + ENTRY * slot)); }
+    public String name(int slot) { return string(buf.getInt(indexPos + ENTRY * slot + 4)); }
+
+    public DataStore.Marks marks(int slot, String ia, String subject) {
+        int iaOrd = indexOf(iaNames, ia), subjOrd = indexOf(subjectNames, subject);
+        if (iaOrd < 0 || subjOrd < 0) return null;
+        int first = buf.getInt(indexPos + ENTRY * slot + 8), count = buf.getInt(indexPos + ENTRY * slot + 12);
+        for (int r = first; r < first + count; r++) {
+            int p = recordPos + RECORD * r;
+            if (buf.getShort(p) == iaOrd && buf.getShort(p + 2) == subjOrd) return record(p);
+        }
+        return null;
+    }
+
+    /** All subjects of one IA for a student, or null when the student has none for that IA. */
+    public Map<String, DataStore.Marks> marksForIA(int slot, String ia) {
+        int iaOrd = indexOf(iaNames, ia);
+        if (iaOrd < 0) return null;
+        int first = buf.getInt(indexPos + ENTRY * slot + 8), count = buf.getInt(indexPos + ENTRY * slot + 12);
+        Map<String, DataStore.Marks> out = null;
+        for (int r = first; r < first + count; r++) {
+            int p = recordPos + RECORD * r;
+            if (buf.getShort(p) != iaOrd) continue;
+            if (out == null) out = new HashMap<>();
+            out.put(subjectNames[buf.getShort(p + 2)], record(p));
+        }
+        return out;
+    }
+
+    /** Builds the Student object for a single slot (used by getStudentByRegister only). */
+    public DataStore.Student materialize(int slot) {
+        DataStore.Student s = new DataStore.Student(register(slot), name(slot));
+        for (String ia : iaNames) {
+            Map<String, DataStore.Marks> m = marksForIA(slot, ia);
+            if (m != null) s.iaMarks.put(ia, m);
+        }
+        return s;
+    }
+
+    // ---------------- Internals ----------------
+    private DataStore.Marks record(int p) {
+        return new DataStore.Marks(buf.getInt(p + 4), buf.getInt(p + 8), buf.getInt(p + 12));
+    }
+
+    private String string(int off) {
+        int p = heapPos + off;
+        byte[] b = new byte[buf.getShort(p) & 0xffff];
+        for (int i = 0; i < b.length; i++) b[i] = buf.get(p + 2 + i);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private int compareHeap(int off, byte[] key) {
+        int p = heapPos + off, len = buf.getShort(p) & 0xffff;
+        for (int i = 0; i < Math.min(len, key.length); i++) {
+            int c = (buf.get(p + 2 + i) & 0xff) - (key[i] & 0xff);
+            if (c != 0) return c;
+        }
+        return len - key.length;
+    }
+
+    private static int putString(DataOutputStream hp, ByteArrayOutputStream heap, String s) throws IOException {
+        int off = heap.size();
+        byte[] b = utf8(s);
+        hp.writeShort(b.length);
+        hp.write(b);
+        return off;
+    }
+
+    private static int indexOf(String[] names, String key) {
+        for (int i = 0; i < names.length; i++) if (names[i].equals(key)) return i;
+        return -1;
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            int c = (a[i] & 0xff) - (b[i] & 0xff);
+            if (c != 0) return c;
+        }
+        return a.length - b.length;
+    }
+
+    private static byte[] utf8(String s) { return s.getBytes(StandardCharsets.UTF_8); }
+
+    private static long crc(File f) throws IOException {
+        CRC32 c = new CRC32();
+        try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            c.update(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+        return c.getValue();
+    }
+}
@@ -0,0 +1,229 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.*;
+
+/**
+ * MarksTable: every row of Internal_marks.csv packed into direct (off-heap) buffers, in place of a
+ * Student per register holding a map per IA of Marks per subject. The heap keeps only the register
+ * number and name per student and a sorted register index; the marks themselves are not objects.
+ *
+ * Buffers (native byte order):
+ *   records   per mark row: int student, short ia, short subject, int concept, int cat, int total
+ *             (20 bytes), sorted by (student, ia, subject), so one student's rows are contiguous
+ *   starts    int first record per student ordinal, plus one past the last record
+ *   columns   int record number per row, sorted by (ia, subject, student): one (IA, subject)
+ *             column is contiguous, for class-wide scans by subject
+ *   colStarts int first columns slot per (ia, subject) pair, plus one past the end
+ * Student ordinals follow first appearance in the CSV (keeps getAllRegisterNos ordering). A later row
+ * for the same (student, IA, subject) replaces the earlier one, as the maps did. A table is built
+ * once per load and never modified, so readers need no locking.
+ */
+public final class MarksTable {
+    private static final int RECORD = 20;
+
+    private final String[] regs, names;          // by student ordinal
+    private final int[] byReg;                   // student ordinals sorted by register no
+    private final String[] iaNames, subjectNames;
+    private final Map<String, Integer> iaOrd, subjOrd;
+    private final ByteBuffer records;
+    private final IntBuffer starts, columns, colStarts;
+
+    private MarksTable(Builder b, ByteBuffer records, IntBuffer starts, IntBuffer columns, IntBuffer colStarts) {
+        regs = b.regs.toArray(new String[0]);
+        names = b.names.toArray(new String[0]);
+        iaNames = b.ias.toArray(new String[0]);
+        subjectNames = b.subjects.toArray(new String[0]);
+        iaOrd = b.iaOrd;
+        subjOrd = b.subjOrd;
+        this.records = records;
+        this.starts = starts;
+        this.columns = columns;
+        this.colStarts = colStarts;
+        Integer[] sorted = new Integer[regs.length];
+        for (int i = 0; i < sorted.length; i++) sorted[i] = i;
+        Arrays.sort(sorted, (x, y) -> regs[x].compareTo(regs[y]));
+        byReg = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) byReg[i] = sorted[i];
+    }
+
+    /** Collects rows in CSV order; build() sorts and packs them. Not thread-safe. */
+    public static final class Builder {
+        private final List<String> regs = new ArrayList<>(), names = new ArrayList<>();
+        private final Map<String, Integer> studentOrd = new HashMap<>();
+        private final List<String> ias = new ArrayList<>(), subjects = new ArrayList<>();
+        private final Map<String, Integer> iaOrd = new HashMap<>(), subjOrd = new HashMap<>();
+        private int[] rows = new int[6 * 1024]; // per row: student, ia, subject, concept, cat, total
+        private int count;
+
+        public Builder add(String reg, String name, String ia, String subject, int concept, int cat, int total) {
+            if (name == null) name = "";
+            Integer s = studentOrd.get(reg);
+            if (s == null) { s = regs.size(); studentOrd.put(reg, s); regs.add(reg); names.add(name); }
+            else if (names.get(s).isEmpty()) names.set(s, name); // first non-empty name wins
+            int i = iaOrd.computeIfAbsent(ia, k -> { ias.add(k); return ias.size() - 1; });
+            int j = subjOrd.computeIfAbsent(subject, k -> { subjects.add(k); return subjects.size() - 1; });
+            if (6 * (count + 1) > rows.length) rows = Arrays.copyOf(rows, rows.length * 2);
+            int r = 6 * count++;
+            rows[r] = s; rows[r + 1] = i; rows[r + 2] = j;
+            rows[r + 3] = concept; rows[r + 4] = cat; rows[r + 5] = total;
+            return this;
+        }
+
+        public int students() { return regs.size(); }
+
+        public MarksTable build() {
+            if (ias.size() > Short.MAX_VALUE || subjects.size() > Short.MAX_VALUE)
+                throw new IllegalStateException("too many IA or subject names for the marks table");
+            int n = regs.size();
+            // stable counting sort of the rows by student ...
+            int[] first = new int[n + 1];
+            for (int r = 0; r < count; r++) first[rows[6 * r] + 1]++;
+            for (int s = 0; s < n; s++) first[s + 1] += first[s];
+            int[] order = new int[count], fill = Arrays.copyOf(first, n);
+            for (int r = 0; r < count; r++) order[fill[rows[6 * r]]++] = r;
+            // ... then each student's handful of rows by (ia, subject), dropping rows a later one replaces
+            int kept = 0;
+            int[] start = new int[n + 1];
+            for (int s = 0; s < n; s++) {
+                int lo = first[s], hi = first[s + 1];
+                for (int i = lo + 1; i < hi; i++) { // insertion sort; stable, so duplicates stay in CSV order
+                    int r = order[i], j = i - 1;
+                    while (j >= lo && key(order[j]) > key(r)) { order[j + 1] = order[j]; j--; }
+                    order[j + 1] = r;
+                }
+                start[s] = kept;
+                for (int i = lo; i < hi; i++)
+                    if (i + 1 == hi || key(order[i + 1]) != key(order[i])) order[kept++] = order[i];
+            }
+            start[n] = kept;
+
+            ByteBuffer records = ByteBuffer.allocateDirect(kept * RECORD).order(ByteOrder.nativeOrder());
+            for (int i = 0; i < kept; i++) {
+                int r = 6 * order[i];
+                records.putInt(rows[r]).putShort((short) rows[r + 1]).putShort((short) rows[r + 2])
+                        .putInt(rows[r + 3]).putInt(rows[r + 4]).putInt(rows[r + 5]);
+            }
+
+            // column index: counting sort of record numbers by (ia, subject); records are already in student order
+            int pairs = ias.size() * subjects.size();
+            int[] colFirst = new int[pairs + 1];
+            for (int i = 0; i < kept; i++) colFirst[column(order[i]) + 1]++;
+            for (int c = 0; c < pairs; c++) colFirst[c + 1] += colFirst[c];
+            int[] cols = new int[kept], colFill = Arrays.copyOf(colFirst, pairs);
+            for (int i = 0; i < kept; i++) cols[colFill[column(order[i])]++] = i;
+
+            rows = null; // the builder is spent
+            return new MarksTable(this, records, ints(start), ints(cols), ints(colFirst));
+        }
+
+        private int key(int r) { return rows[6 * r + 1] << 16 | rows[6 * r + 2]; }
+        private int column(int r) { return rows[6 * r + 1] * subjects.size() + rows[6 * r + 2]; }
+
+        private static IntBuffer ints(int[] values) {
+            IntBuffer b = ByteBuffer.allocateDirect(4 * values.length).order(ByteOrder.nativeOrder()).asIntBuffer();
+            b.put(values);
+            return b;
+        }
+    }
+
+    /** Receives one mark row of a column scan. */
+    public interface RowVisitor {
+        void row(int student, int concept, int cat, int total);
+    }
+
+    // ---------------- Queries ----------------
+    public int size() { return regs.length; }
+    public int rows() { return records.capacity() / RECORD; }
+    public String register(int student) { return regs[student]; }
+    public String name(int student) { return names[student]; }
+    public List<String> ias() { return Collections.unmodifiableList(Arrays.asList(iaNames)); }
+    public List<String> subjects() { return Collections.unmodifiableList(Arrays.asList(subjectNames)); }
+
+    /** Bytes held outside the Java heap by the record and index buffers. */
+    public long offHeapBytes() {
+        return records.capacity() + 4L * (starts.capacity() + columns.capacity() + colStarts.capacity());
+    }
+
+    /** Binary search over the register index; returns the student ordinal or -1. */
+    public int find(String reg) {
+        if (reg == null) return -1;
+        int lo = 0, hi = byReg.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = regs[byReg[mid]].compareTo(reg);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return byReg[mid];
+        }
+        return -1;
+    }
+
+    public DataStore.Marks marks(int student, String ia, String subject) {
+        Integer i = iaOrd.get(ia), j = subjOrd.get(subject);
+        if (i == null || j == null) return null;
+        int key = i << 16 | j;
+        int lo = starts.get(student), hi = starts.get(student + 1) - 1;
+        while (lo <= hi) { // the student's rows are sorted by (ia, subject)
+            int mid = (lo + hi) >>> 1, k = key(mid);
+            if (k < key) lo = mid + 1;
+            else if (k > key) hi = mid - 1;
+            else return marksAt(mid);
+        }
+        return null;
+    }
+
+    /** Subject -> marks for one IA, or null when the student has none for it. */
+    public Map<String, DataStore.Marks> marksForIA(int student, String ia) {
+        Integer i = iaOrd.get(ia);
+        if (i == null) return null;
+        Map<String, DataStore.Marks> out = null;
+        for (int r = starts.get(student), end = starts.get(student + 1); r < end; r++) {
+            int at = records.getShort(r * RECORD + 4);
+            if (at > i) break;
+            if (at < i) continue;
+            if (out == null) out = new HashMap<>();
+            out.put(subjectNames[records.getShort(r * RECORD + 6)], marksAt(r));
+        }
+        return out;
+    }
+
+    /** Builds the Student view of one ordinal (for callers that want the whole record). */
+    public DataStore.Student student(int student) {
+        DataStore.Student s = new DataStore.Student(regs[student], names[student]);
+        for (int r = starts.get(student), end = starts.get(student + 1); r < end; r++)
+            s.iaMarks.computeIfAbsent(iaNames[records.getShort(r * RECORD + 4)], k -> new HashMap<>())
+                    .put(subjectNames[records.getShort(r * RECORD + 6)], marksAt(r));
+        return s;
+    }
+
+    /** Every student as Student objects, in CSV order (what MarksSnapshot.write compiles from). */
+    public Map<String, DataStore.Student> toStudents() {
+        Map<String, DataStore.Student> out = new LinkedHashMap<>();
+        for (int s = 0; s < regs.length; s++) out.put(regs[s], student(s));
+        return out;
+    }
+
+    /** Visits one (IA, subject) column in student-ordinal order. */
+    public void forEachInColumn(String ia, String subject, RowVisitor v) {
+        Integer i = iaOrd.get(ia), j = subjOrd.get(subject);
+        if (i == null || j == null) return;
+        int c = i * subjectNames.length + j;
+        for (int slot = colStarts.get(c), end = colStarts.get(c + 1); slot < end; slot++) {
+            int at = columns.get(slot) * RECORD;
+            v.row(records.getInt(at), records.getInt(at + 8), records.getInt(at + 12), records.getInt(at + 16));
+        }
+    }
+
+    /** Visits a subject's column for every IA, IA by IA. */
+    public void forEachInSubject(String subject, RowVisitor v) {
+        for (String ia : iaNames) forEachInColumn(ia, subject, v);
+    }
+
+    private int key(int r) { return records.getShort(r * RECORD + 4) << 16 | records.getShort(r * RECORD + 6); }
+
+    private DataStore.Marks marksAt(int r) {
+        int at = r * RECORD;
+        return new DataStore.Marks(records.getInt(at + 8), records.getInt(at + 12), records.getInt(at + 16));
+    }
+}
@@ -0,0 +1,135 @@
+import java.util.*;
+
+/**
+ * NameIndex: student lookup by name, built while marks load.
+ * - exact: case-folded, whitespace-collapsed full name -> register numbers (constant time)
+ * - trie:  every name token and the register number itself, each trie node holding the
+ *          students whose token starts with that prefix (type-ahead / partial search)
+ * A query matches a student when its tokens are prefixes of the student's tokens in the same
+ * order, so "kevin jose", "kev j b" and "K J B" all find "KEVIN JOSE B".
+ */
+public class NameIndex {
+    private static class Node {
+        final Map<Character, Node> next = new HashMap<>(4);
+        int[] ids = new int[2];
+        int count;
+        void add(int id) {
+            if (count > 0 && ids[count - 1] == id) return; // same student, repeated token
+            if (count == ids.length) ids = Arrays.copyOf(ids, count * 2);
+            ids[count++] = id;
+        }
+    }
+
+    private final Map<String, List<String>> exact = new HashMap<>();
+    private final Node root = new Node();
+    private final List<String> regs = new ArrayList<>();      // id -> register no
+    private final List<String[]> tokens = new ArrayList<>();  // id -> name tokens
+    private final Map<String, Integer> ids = new HashMap<>(); // register no -> id
+
+    /** Adds (or renames) a student. Ids are handed out in insertion order. */
+    public synchronized void add(String reg, String name) {
+        String norm = normalize(name);
+        Integer known = ids.get(reg);
+        if (known != null) {
+            if (String.join(" ", tokens.get(known)).equals(norm)) return;
+            remove(known);
+        }
+        int id = regs.size();
+        regs.add(reg);
+        String[] toks = norm.isEmpty() ? new String[0] : norm.split(" ");
+        tokens.add(toks);
+        ids.put(reg, id);
+        if (!norm.isEmpty()) exact.computeIfAbsent(norm, k -> new ArrayList<>(1)).add(reg);
+        for (String t : toks) insert(t, id);
+        insert(reg.toLowerCase(Locale.ROOT), id);
+    }
+
+    /** Register number for an exact (case/whitespace-insensitive) name match. */
+    public synchronized Optional<String> findExact(String name) {
+        List<String> hit = exact.get(normalize(name));
+        return hit == null || hit.isEmpty() ? Optional.empty() : Optional.of(hit.get(0));
+    }
+
+    /**
+     * Register numbers whose name (or register number) matches the query tokens as ordered prefixes,
+     * in load order, at most limit results.
+     */
+    public List<String> search(String query, int limit) { return search(query, limit, true); }
+
+    /** As search, matching name tokens only: a query that is the start of a register number finds nothing. */
+    public List<String> searchNames(String query, int limit) { return search(query, limit, false); }
+
+    private synchronized List<String> search(String query, int limit, boolean registers) {
+        String norm = normalize(query);
+        if (norm.isEmpty()) return Collections.emptyList();
+        String[] q = norm.split(" ");
+
+        // candidates: the smallest posting list among the query tokens
+        Node best = null;
+        for (String t : q) {
+            Node n = find(t);
+            if (n == null) return Collections.emptyList();
+            if (best == null || n.count < best.count) best = n;
+        }
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < best.count && out.size() < limit; i++) {
+            int id = best.ids[i];
+            String reg = regs.get(id);
+            if (reg == null) continue; // removed
+            if (matchesInOrder(q, tokens.get(id)) || (registers && q.length == 1 && reg.toLowerCase(Locale.ROOT).startsWith(q[0])))
+                out.add(reg);
+        }
+        return out;
+    }
+
+    public synchronized int size() { return ids.size(); }
+
+    /** Lower-cases, trims and collapses runs of whitespace/dots to a single space. */
+    public static String normalize(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        boolean space = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c) || c == '.') { space = sb.length() > 0; continue; }
+            if (space) { sb.append(' '); space = false; }
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    // ---------------- Internals ----------------
+    private static boolean matchesInOrder(String[] q, String[] name) {
+        int j = 0;
+        for (String t : q) {
+            while (j < name.length && !name[j].startsWith(t)) j++;
+            if (j == name.length) return false;
+            j++;
+        }
+        return true;
+    }
+
+    private void insert(String token, int id) {
+        Node n = root;
+        for (int i = 0; i < token.length(); i++) {
+            n = n.next.computeIfAbsent(token.charAt(i), k -> new Node());
+            n.add(id);
+        }
+    }
+
+    private Node find(String prefix) {
+        Node n = root;
+        for (int i = 0; i < prefix.length() && n != null; i++) n = n.next.get(prefix.charAt(i));
+        return n;
+    }
+
+    private void remove(int id) {
+        // trie postings keep the stale id; search() skips it because regs[id] is cleared
+        String reg = regs.get(id);
+        String norm = String.join(" ", tokens.get(id));
+        List<String> hit = exact.get(norm);
+        if (hit != null) { hit.remove(reg); if (hit.isEmpty()) exact.remove(norm); }
+        regs.set(id, null);
+        ids.remove(reg);
+    }
+}
@@ -0,0 +1,124 @@
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * Grid for marking a whole class period at once: one row per student, one column per subject.
+ * "Save All" sends the cells the teacher changed through DataStore.updateAttendanceBatch (one lock,
+ * one durable write) and lists every validation problem together instead of stopping at the first.
+ * Limits shown in the headers and used by "Mark Column All Present" are the stored totals, the
+ * same ones the save is checked against. The save runs in a
+ * SwingWorker with the buttons disabled, so the window keeps painting while it waits for the disk.
+ */
+public class PeriodAttendanceDialog extends JDialog {
+    private final String[] subjects;
+    private final DefaultTableModel model;
+    private final JTable table;
+    private final int[][] loaded, totals; // [row][subject]: present as loaded, stored total
+    private final JButton saveBtn = new JButton("Save All"), cancelBtn = new JButton("Cancel");
+
+    public PeriodAttendanceDialog(Frame owner, String[] subjects) {
+        super(owner, "Mark Whole Period", true);
+        this.subjects = subjects;
+
+        // the current values, read straight from the columnar store
+        AttendanceTable store = DataStore.getAttendanceTable();
+        int[] subjCols = new int[subjects.length];
+        for (int i = 0; i < subjects.length; i++) subjCols[i] = store.subjectOrdinal(subjects[i]);
+        List<String> regs = new ArrayList<>(DataStore.getAllRegisterNos());
+        loaded = new int[regs.size()][subjects.length];
+        totals = new int[regs.size()][subjects.length];
+        int[] min = new int[subjects.length], max = new int[subjects.length];
+        Arrays.fill(min, Integer.MAX_VALUE);
+        for (int r = 0; r < regs.size(); r++) {
+            int ord = store.ordinal(regs.get(r));
+            for (int i = 0; i < subjects.length; i++) {
+                int s = subjCols[i];
+                loaded[r][i] = ord >= 0 && s >= 0 ? store.present(ord, s) : 0;
+                totals[r][i] = ord >= 0 && s >= 0 && store.hasTotal(ord, s) ? store.total(ord, s) : DataStore.getDefaultTotal(subjects[i]);
+                min[i] = Math.min(min[i], totals[r][i]);
+                max[i] = Math.max(max[i], totals[r][i]);
+            }
+        }
+
+        String[] cols = new String[subjects.length + 1];
+        cols[0] = "Register No";
+        for (int i = 0; i < subjects.length; i++)
+            cols[i + 1] = subjects[i] + (regs.isEmpty() ? "" : " (/" + (min[i] == max[i] ? min[i] : min[i] + "-" + max[i]) + ")");
+        model = new DefaultTableModel(cols, 0) {
+            @Override public boolean isCellEditable(int row, int col) { return col > 0; }
+            @Override public Class<?> getColumnClass(int col) { return col == 0 ? String.class : Integer.class; }
+        };
+        for (int r = 0; r < regs.size(); r++) {
+            Object[] row = new Object[subjects.length + 1];
+            row[0] = regs.get(r);
+            for (int i = 0; i < subjects.length; i++) row[i + 1] = loaded[r][i];
+            model.addRow(row);
+        }
+        table = new JTable(model);
+        table.setCellSelectionEnabled(true);
+
+        JButton fillBtn = new JButton("Mark Column All Present");
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(fillBtn);
+        buttons.add(saveBtn);
+        buttons.add(cancelBtn);
+
+        fillBtn.addActionListener(e -> {
+            int col = table.getSelectedColumn();
+            if (col < 1) { JOptionPane.showMessageDialog(this, "Select a cell in a subject column first."); return; }
+            for (int r = 0; r < model.getRowCount(); r++) model.setValueAt(totals[r][col - 1], r, col);
+        });
+        cancelBtn.addActionListener(e -> dispose());
+        saveBtn.addActionListener(e -> save());
+
+        setLayout(new BorderLayout());
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(buttons, BorderLayout.SOUTH);
+        setSize(760, 520);
+        setLocationRelativeTo(owner);
+    }
+
+    private void save() {
+        if (table.isEditing()) table.getCellEditor().stopCellEditing();
+        Map<String, Map<String, Integer>> batch = new LinkedHashMap<>();
+        for (int r = 0; r < model.getRowCount(); r++) {
+            Map<String, Integer> present = new LinkedHashMap<>();
+            for (int i = 0; i < subjects.length; i++) {
+                Integer value = (Integer) model.getValueAt(r, i + 1);
+                if (value == null || value != loaded[r][i]) present.put(subjects[i], value); // untouched cells are not re-checked
+            }
+            if (!present.isEmpty()) batch.put((String) model.getValueAt(r, 0), present);
+        }
+        if (batch.isEmpty()) { JOptionPane.showMessageDialog(this, "Nothing was changed."); return; }
+        saveBtn.setEnabled(false);
+        cancelBtn.setEnabled(false);
+        saveBtn.setText("Saving…");
+        new SwingWorker<List<String>, Void>() {
+            @Override protected List<String> doInBackground() { return DataStore.updateAttendanceBatch(batch); }
+            @Override protected void done() {
+                saveBtn.setText("Save All");
+                saveBtn.setEnabled(true);
+                cancelBtn.setEnabled(true);
+                List<String> errors;
+                try { errors = get(); }
+                catch (Exception ex) { ex.printStackTrace(); errors = Collections.singletonList("Not saved: " + AttendanceManager.reason(ex.getCause())); }
+                showResult(batch.size(), errors);
+            }
+        }.execute();
+    }
+
+    private void showResult(int students, List<String> errors) {
+        if (errors.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Attendance saved for " + students + " students.");
+            dispose();
+            return;
+        }
+        StringBuilder sb = new StringBuilder("Could not save the period:\n");
+        for (int i = 0; i < errors.size() && i < 30; i++) sb.append("• ").append(errors.get(i)).append("\n");
+        if (errors.size() > 30) sb.append("… and ").append(errors.size() - 30).append(" more");
+        JOptionPane.showMessageDialog(this, sb.toString(), "Invalid attendance", JOptionPane.WARNING_MESSAGE);
+    }
+}
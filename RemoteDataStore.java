@@ -0,0 +1,284 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+/**
+ * RemoteDataStore: client side of DataStoreServer, used by DataStore when the Swing apps run with
+ * -Dclassconnect.server=http://host:8085. Calls map one-to-one onto the server's JSON API.
+ * A daemon thread polls /api/version and reports datasets changed by other machines, so
+ * ChangeListeners (reports, answer cache) behave as they do locally. The class-wide attendance
+ * table is fetched once, on first use; after that the poller fetches a new copy whenever the
+ * attendance version moves, before telling the listeners, so report cells never wait on HTTP.
+ * Logging in keeps the server's session token, which every later request sends; the poller waits
+ * until there is one.
+ * Like the local loaders, failed reads are printed and answered with empty results; failed writes
+ * throw, so the caller's save future completes exceptionally.
+ */
+public class RemoteDataStore {
+    private static final long POLL_MS = Long.getLong("classconnect.server.pollMs", 2000);
+
+    private final String base;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Map<String, Long> seenVersions = new ConcurrentHashMap<>();
+    private volatile AttendanceTable tableCache; // replaced by the poller, never cleared
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(DataStore.daemonThreads("remote-poller"));
+    private BiConsumer<String, Collection<String>> onChange = (dataset, regs) -> {};
+    private volatile String token; // from the last successful login
+
+    public RemoteDataStore(String baseUrl) {
+        this.base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /** The configured server, or null for the normal local mode. */
+    static RemoteDataStore fromConfig() {
+        String url = System.getProperty("classconnect.server");
+        return url == null || url.trim().isEmpty() ? null : new RemoteDataStore(url.trim());
+    }
+
+    /** Polls the server's dataset versions and calls onChange(dataset, no registers) when one moves. */
+    void startPolling(BiConsumer<String, Collection<String>> onChange) {
+        this.onChange = onChange;
+        poller.scheduleWithFixedDelay(this::poll, 0, POLL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // poller thread only
+    private void poll() {
+        if (token == null) return; // nothing may be read before a login
+        Object v = get("/api/version");
+        if (v == null) return;
+        for (Map.Entry<String, Object> e : Json.object(v).entrySet()) {
+            long now = ((Number) e.getValue()).longValue();
+            Long before = seenVersions.put(e.getKey(), now);
+            if (before == null || before == now) continue;
+            if (DataStore.DATASET_ATTENDANCE.equals(e.getKey()) && tableCache != null) {
+                AttendanceTable fresh = fetchTable();
+                if (fresh == null) { seenVersions.put(e.getKey(), before); continue; } // keep the old copy, retry next tick
+                tableCache = fresh;
+            }
+            onChange.accept(e.getKey(), Collections.emptyList());
+        }
+    }
+
+    // our own save moved a version: look now rather than at the next tick
+    private void pollSoon() { poller.execute(this::poll); }
+
+    // ---------------- Login ----------------
+    public boolean verifyStudent(String reg, String password) {
+        Map<String, Object> b = new LinkedHashMap<>();
+        b.put("reg", reg);
+        b.put("password", password);
+        return login(post("/api/login/student", b));
+    }
+
+    public boolean verifyTeacher(String email, String password) {
+        Map<String, Object> b = new LinkedHashMap<>();
+        b.put("email", email);
+        b.put("password", password);
+        boolean ok = login(post("/api/login/teacher", b));
+        if (ok) poller.execute(() -> { if (tableCache == null) tableCache = fetchTable(); }); // after login's poll: reports open on a warm copy
+        return ok;
+    }
+
+    // a successful login replaces the session; a failed one leaves no session behind
+    private boolean login(Object r) {
+        boolean ok = r != null && Boolean.TRUE.equals(Json.object(r).get("ok"));
+        token = ok ? Json.string(Json.object(r).get("token")) : null;
+        if (ok) pollSoon(); // note the versions now, so a save made before the next tick is not taken as the baseline
+        return ok;
+    }
+
+    // ---------------- Students and marks ----------------
+    public DataStore.Student getStudent(String reg) {
+        Object r = get("/api/students/" + encode(reg));
+        if (r == null) return null;
+        Map<String, Object> o = Json.object(r);
+        DataStore.Student s = new DataStore.Student(Json.string(o.get("reg")), Json.string(o.get("name")));
+        for (Map.Entry<String, Object> ia : Json.object(o.get("marks")).entrySet()) {
+            Map<String, DataStore.Marks> subjects = new HashMap<>();
+            for (Map.Entry<String, Object> m : Json.object(ia.getValue()).entrySet()) {
+                List<Object> v = Json.array(m.getValue());
+                subjects.put(m.getKey(), new DataStore.Marks(Json.integer(v.get(0)), Json.integer(v.get(1)), Json.integer(v.get(2))));
+            }
+            s.iaMarks.put(ia.getKey(), subjects);
+        }
+        return s;
+    }
+
+    public Optional<String> findRegisterByName(String name) {
+        Object r = get("/api/students/find?name=" + encode(name));
+        return r == null ? Optional.empty() : Optional.ofNullable(Json.string(Json.object(r).get("reg")));
+    }
+
+    public List<String> searchStudents(String query, int limit) {
+        Object r = get("/api/students?q=" + encode(query) + "&limit=" + limit);
+        List<String> out = new ArrayList<>();
+        if (r != null) for (Object o : Json.array(r)) out.add(Json.string(o));
+        return out;
+    }
+
+    public Set<String> getAllRegisterNos() {
+        Object r = get("/api/students");
+        Set<String> out = new LinkedHashSet<>();
+        if (r != null) for (Object o : Json.array(r)) out.add(Json.string(o));
+        return out;
+    }
+
+    public MarksAnalytics.Standing getStanding(String reg, String ia, String subject) {
+        Object r = get("/api/analytics/" + encode(ia) + "/" + encode(subject) + "?reg=" + encode(reg));
+        if (r == null) return null;
+        Map<String, Object> o = Json.object(r);
+        return new MarksAnalytics.Standing(Json.integer(o.get("rank")), Json.integer(o.get("of")), ((Number) o.get("percentile")).doubleValue());
+    }
+
+    public int[] getMarksHistogram(String ia, String subject, int bucketWidth) {
+        Object r = get("/api/analytics/" + encode(ia) + "/" + encode(subject) + "?bucket=" + bucketWidth);
+        if (r == null) return new int[0];
+        List<Object> buckets = Json.array(Json.object(r).get("histogram"));
+        int[] out = new int[buckets.size()];
+        for (int i = 0; i < out.length; i++) out[i] = Json.integer(buckets.get(i));
+        return out;
+    }
+
+    // ---------------- Attendance ----------------
+    public DataStore.Attendance getAttendance(String regOrName) {
+        Object r = get("/api/attendance/" + encode(regOrName));
+        return r == null ? null : attendance(Json.object(r));
+    }
+
+    /** Class-wide table for reports: the cached copy; only the first call goes to the server. */
+    public AttendanceTable getAttendanceTable() {
+        AttendanceTable t = tableCache;
+        if (t != null) return t;
+        t = fetchTable();
+        if (t == null) return new AttendanceTable();
+        tableCache = t;
+        return t;
+    }
+
+    // null when the server could not be read
+    private AttendanceTable fetchTable() {
+        Object r = get("/api/attendance");
+        if (r == null) return null;
+        AttendanceTable t = new AttendanceTable();
+        for (Map.Entry<String, Object> row : Json.object(r).entrySet()) {
+            DataStore.Attendance a = attendance(Json.object(row.getValue()));
+            int ord = t.ensureStudent(row.getKey());
+            for (Map.Entry<String, Integer> e : a.presentPerSubject.entrySet()) t.setPresent(ord, t.ensureSubject(e.getKey()), e.getValue());
+            for (Map.Entry<String, Integer> e : a.totalPerSubject.entrySet()) t.setTotal(ord, t.ensureSubject(e.getKey()), e.getValue());
+        }
+        return t;
+    }
+
+    public List<AtRiskIndex.Risk> getAtRiskStudents(String subject) {
+        Object r = get("/api/atrisk" + (subject == null ? "" : "?subject=" + encode(subject)));
+        List<AtRiskIndex.Risk> out = new ArrayList<>();
+        if (r != null) for (Object o : Json.array(r)) {
+            Map<String, Object> m = Json.object(o);
+            out.add(new AtRiskIndex.Risk(Json.string(m.get("reg")), subject, Json.integer(m.get("present")), Json.integer(m.get("total"))));
+        }
+        return out;
+    }
+
+    /** Throws IllegalStateException when the server is unreachable or refuses the save. */
+    public void updateAttendance(String reg, Map<String, Integer> presentMap, Map<String, Integer> totalMap) {
+        Map<String, Object> b = new LinkedHashMap<>();
+        b.put("present", presentMap);
+        b.put("total", totalMap);
+        Object r = post("/api/attendance/" + encode(reg), b);
+        pollSoon();
+        if (r == null) throw new IllegalStateException("the server at " + base + " did not save attendance for " + reg);
+    }
+
+    public List<String> updateAttendanceBatch(Map<String, Map<String, Integer>> presentByReg) {
+        Object r = post("/api/attendance/batch", presentByReg);
+        pollSoon();
+        if (r == null) return Collections.singletonList("Could not reach the server at " + base);
+        List<String> errors = new ArrayList<>();
+        for (Object o : Json.array(Json.object(r).get("errors"))) errors.add(Json.string(o));
+        return errors;
+    }
+
+    public List<String> recordSession(LocalDate date, int period, String subject, Map<String, Boolean> presentByReg) {
+        Map<String, Object> b = new LinkedHashMap<>();
+        b.put("date", date == null ? null : date.toString());
+        b.put("period", period);
+        b.put("subject", subject);
+        b.put("marks", presentByReg);
+        Object r = post("/api/attendance/session", b);
+        pollSoon();
+        if (r == null) return Collections.singletonList("Could not reach the server at " + base);
+        List<String> errors = new ArrayList<>();
+        for (Object o : Json.array(Json.object(r).get("errors"))) errors.add(Json.string(o));
+        return errors;
+    }
+
+    public DataStore.Attendance getAttendanceBetween(String regOrName, LocalDate from, LocalDate to) {
+        Object r = get("/api/attendance/" + encode(regOrName) + "?from=" + (from == null ? "" : from) + "&to=" + (to == null ? "" : to));
+        return r == null ? null : attendance(Json.object(r));
+    }
+
+    // ---------------- Announcements ----------------
+    public List<String> getAnnouncements() {
+        Object r = get("/api/announcements");
+        List<String> out = new ArrayList<>();
+        if (r != null) for (Object o : Json.array(Json.object(r).get("items"))) out.add(Json.string(o));
+        return Collections.unmodifiableList(out);
+    }
+
+    public long getAnnouncementsVersion() {
+        Object r = get("/api/announcements");
+        return r == null ? 0 : ((Number) Json.object(r).get("version")).longValue();
+    }
+
+    /** Throws IllegalStateException when the server is unreachable or refuses the announcement. */
+    public void addAnnouncement(String text) {
+        if (post("/api/announcements", Collections.singletonMap("text", text)) == null)
+            throw new IllegalStateException("the server at " + base + " did not save the announcement");
+    }
+
+    // ---------------- Plumbing ----------------
+    private static DataStore.Attendance attendance(Map<String, Object> o) {
+        return new DataStore.Attendance(Json.intMap(o.get("present")), Json.intMap(o.get("total")));
+    }
+
+    private Object get(String path) {
+        return send(request(path).GET());
+    }
+
+    private Object post(String path, Object body) {
+        return send(request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(Json.write(body), StandardCharsets.UTF_8)));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create(base + path));
+        String t = token;
+        return t == null ? req : req.header("Authorization", "Bearer " + t);
+    }
+
+    /** Returns the parsed body of a 2xx response; null for 404, errors and unreachable servers. */
+    private Object send(HttpRequest.Builder req) {
+        try {
+            HttpResponse<String> res = http.send(req.timeout(Duration.ofSeconds(15)).build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            if (res.statusCode() / 100 == 2) return Json.parse(res.body());
+            if (res.statusCode() != 404) System.out.println("DataStore: server answered " + res.statusCode() + ": " + res.body());
+        } catch (IOException ex) {
+            System.out.println("DataStore: server unreachable (" + ex + ")");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static String encode(String s) { return URLEncoder.encode(s, StandardCharsets.UTF_8).replace("+", "%20"); }
+}
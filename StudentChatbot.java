@@ -3,6 +3,9 @@ import java.util.Map;
 import javax.swing.*;
 
 public class StudentChatbot extends JFrame {
+    private static final IntentMatcher INTENTS = IntentMatcher.standard(DataStore.DEFAULT_SUBJECTS);
+    private static final AnswerCache ANSWERS = AnswerCache.shared();
+
     private final JTextArea chatArea = new JTextArea();
     private final JTextField inputField = new JTextField();
     private final String reg;
@@ -58,94 +61,83 @@ public class StudentChatbot extends JFrame {
 
         appendUser(q);
         inputField.setText("");
-        String ql = q.toLowerCase();
+        IntentMatcher.Intent intent = INTENTS.match(q);
 
         try {
-            // === ATTENDANCE QUERY ===
-            if (ql.contains("attendance") || ql.contains("safe")) {
-                DataStore.Attendance a = DataStore.getAttendance(reg);
-                if (a == null || a.presentPerSubject.isEmpty()) {
-                    appendBot("No attendance record found for you yet.");
-                    return;
-                }
-
-                StringBuilder sb = new StringBuilder();
-                double overallTotal = 0, overallPresent = 0;
-
-                for (Map.Entry<String, Integer> entry : a.presentPerSubject.entrySet()) {
-                    String subj = entry.getKey();
-                    int present = entry.getValue();
-                    int total = a.totalPerSubject.getOrDefault(subj, 0);
-                    double pct = total == 0 ? 0.0 : (present * 100.0 / total);
-                    sb.append(String.format("%s → %.1f%% (%d/%d)\n", subj, pct, present, total));
-
-                    overallPresent += present;
-                    overallTotal += total;
-                }
-
-                double overallPct = overallTotal == 0 ? 0.0 : (overallPresent * 100.0 / overallTotal);
-                sb.append(String.format("\nOverall Attendance: %.1f%%\n", overallPct));
-
-                String safeMsg = (overallPct >= 75)
-                        ? "✅ Your attendance is safe!"
-                        : "⚠️ Your attendance is low — try attending more classes.";
-                appendBot(sb.toString() + safeMsg);
-                return;
-            }
+            appendBot(ANSWERS.get(reg, intent, () -> answer(intent)));
+        } catch (Exception ex) {
+            appendBot("⚠️ Error: " + ex.getMessage());
+        }
+    }
 
-            // === INTERNAL ASSESSMENT MARKS QUERY ===
-            if (ql.contains("ia")) {
-                String ia = ql.contains("ia2") ? "IA2" : "IA1";
-                String[] subjects = {"DM", "ESS", "DS", "DBMS", "DPCO", "OOP"};
-                String found = null;
-
-                for (String s : subjects) {
-                    if (ql.contains(s.toLowerCase())) {
-                        found = s;
-                        break;
-                    }
-                }
-
-                if (found == null) {
-                    appendBot("Please mention a subject (e.g., 'IA1 DBMS').");
-                    return;
-                }
-
-                DataStore.Marks m = DataStore.getMarks(reg, ia, found);
-                if (m == null)
-                    appendBot("No marks found for " + found + " in " + ia + ".");
-                else
-                    appendBot(String.format("%s — %s %s:\nConcept: %d | CAT: %d | Total: %d\nRemark: %s",
-                            name, found, ia, m.concept, m.cat, m.total, DataStore.getRemarkFor(m.total)));
-                return;
+    /** Renders the reply for an intent; data-backed replies are cached per student by AnswerCache. */
+    private String answer(IntentMatcher.Intent intent) {
+        // === ATTENDANCE QUERY ===
+        if (intent.kind == IntentMatcher.Kind.ATTENDANCE) {
+            DataStore.Attendance a = DataStore.getAttendance(reg);
+            if (a == null || a.presentPerSubject.isEmpty()) {
+                return "No attendance record found for you yet.";
             }
 
-            // === ANNOUNCEMENTS QUERY ===
-            if (ql.contains("announ")) {
-                var anns = DataStore.getAnnouncements();
-                if (anns.isEmpty())
-                    appendBot("No announcements currently.");
-                else {
-                    StringBuilder sb = new StringBuilder("📢 Announcements:\n");
-                    for (String a : anns)
-                        sb.append("• ").append(a).append("\n");
-                    appendBot(sb.toString());
-                }
-                return;
+            StringBuilder sb = new StringBuilder();
+            double overallTotal = 0, overallPresent = 0;
+
+            for (Map.Entry<String, Integer> entry : a.presentPerSubject.entrySet()) {
+                String subj = entry.getKey();
+                int present = entry.getValue();
+                int total = a.totalPerSubject.getOrDefault(subj, 0);
+                double pct = total == 0 ? 0.0 : (present * 100.0 / total);
+                sb.append(String.format("%s → %.1f%% (%d/%d)\n", subj, pct, present, total));
+
+                overallPresent += present;
+                overallTotal += total;
             }
 
-            // === GREETINGS ===
-            if (ql.matches(".*\\b(hi|hello|hey)\\b.*")) {
-                appendBot("Hello " + name + "! Try:\n" +
-                        "• 'IA1 DBMS'\n• 'Is my attendance safe?'\n• 'Announcements'");
-                return;
+            double overallPct = overallTotal == 0 ? 0.0 : (overallPresent * 100.0 / overallTotal);
+            sb.append(String.format("\nOverall Attendance: %.1f%%\n", overallPct));
+
+            AtRiskIndex.Risk risk = AtRiskIndex.overall(reg, a);
+            String safeMsg = !risk.atRisk()
+                    ? "✅ Your attendance is safe!"
+                    : "⚠️ Your attendance is low — attend the next " + risk.classesNeeded() + " classes to reach " + AtRiskIndex.THRESHOLD + "%.";
+            return sb.toString() + safeMsg;
+        }
+
+        // === INTERNAL ASSESSMENT MARKS QUERY ===
+        if (intent.kind == IntentMatcher.Kind.MARKS) {
+            String ia = intent.ia != null ? intent.ia : "IA1";
+            String found = intent.subject;
+
+            if (found == null) {
+                return "Please mention a subject (e.g., 'IA1 DBMS').";
             }
 
-            // === DEFAULT RESPONSE ===
-            appendBot("Sorry, I didn't get that. Try:\n'IA1 DBMS', 'Is my attendance safe?', or 'Announcements'.");
+            DataStore.Marks m = DataStore.getMarks(reg, ia, found);
+            if (m == null)
+                return "No marks found for " + found + " in " + ia + ".";
+            else
+                return String.format("%s — %s %s:\nConcept: %d | CAT: %d | Total: %d\nRemark: %s",
+                        name, found, ia, m.concept, m.cat, m.total, DataStore.getRemarkFor(m.total));
+        }
 
-        } catch (Exception ex) {
-            appendBot("⚠️ Error: " + ex.getMessage());
+        // === ANNOUNCEMENTS QUERY ===
+        if (intent.kind == IntentMatcher.Kind.ANNOUNCEMENTS) {
+            var anns = DataStore.getAnnouncements();
+            if (anns.isEmpty())
+                return "No announcements currently.";
+            StringBuilder sb = new StringBuilder("📢 Announcements:\n");
+            for (String a : anns)
+                sb.append("• ").append(a).append("\n");
+            return sb.toString();
+        }
+
+        // === GREETINGS ===
+        if (intent.kind == IntentMatcher.Kind.GREETING) {
+            return "Hello " + name + "! Try:\n" +
+                    "• 'IA1 DBMS'\n• 'Is my attendance safe?'\n• 'Announcements'";
         }
+
+        // === DEFAULT RESPONSE ===
+        return "Sorry, I didn't get that. Try:\n'IA1 DBMS', 'Is my attendance safe?', or 'Announcements'.";
     }
 }
@@ -1,10 +1,18 @@
 import java.awt.*;
+import java.util.Collection;
 import java.util.Map;
+import java.util.function.Supplier;
 import javax.swing.*;
 
+/**
+ * Student home frame. The frame and its tab strip are built straight away; each data tab renders its
+ * text on first selection in a SwingWorker, so login never waits for DataStore, and re-renders when
+ * a DataStore change touches it (immediately if it is showing, otherwise on its next selection).
+ */
 public class StudentDashboard extends JFrame {
     private final String registerNo;
     private final String studentName;
+    private LazyTab marksTab, attendanceTab, announcementsTab;
 
     public StudentDashboard(String registerNo, String studentName) {
         this.registerNo = registerNo;
@@ -21,7 +29,8 @@ public class StudentDashboard extends JFrame {
         // Background setup
         JLabel bgLabel = null;
         try {
-            bgLabel = new JLabel(new ImageIcon("college_bg.jpeg"));
+            bgLabel = new JLabel();
+            bgLabel.setIcon(ImageAssets.icon("college_bg.jpeg", bgLabel)); // shared, decoded off the EDT
             bgLabel.setLayout(new BorderLayout());
             setContentPane(bgLabel);
         } catch (Exception ignored) {}
@@ -34,7 +43,7 @@ public class StudentDashboard extends JFrame {
         // Left: college logo
         JLabel logoLabel = new JLabel();
         try {
-            logoLabel.setIcon(new ImageIcon("college_logo.png"));
+            logoLabel.setIcon(ImageAssets.icon("college_logo.png", logoLabel));
         } catch (Exception ignored) {}
         topPanel.add(logoLabel, BorderLayout.WEST);
 
@@ -57,12 +66,96 @@ public class StudentDashboard extends JFrame {
 
         // === Tabs ===
         JTabbedPane tabs = new JTabbedPane();
+        marksTab = new LazyTab(this::renderMarks);
+        attendanceTab = new LazyTab(this::renderAttendance);
+        announcementsTab = new LazyTab(this::renderAnnouncements);
+        tabs.add("Internal Marks (IA1)", marksTab.pane);
+        tabs.add("Attendance", attendanceTab.pane);
+        tabs.add("Announcements", announcementsTab.pane);
 
-        // ---------- Marks Tab ----------
-        JTextArea marksArea = new JTextArea();
-        marksArea.setEditable(false);
-        marksArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+        // ---------- Chatbot Tab ----------
+        JPanel chatPanel = new JPanel(new BorderLayout());
+        chatPanel.setOpaque(false);
+        JButton chatBtn = new JButton("Open Chatbot");
+        chatBtn.addActionListener(e -> new StudentChatbot(registerNo, studentName));
 
+        chatPanel.add(new JLabel("Chatbot for quick queries (attendance, IA marks, announcements)"),
+                BorderLayout.NORTH);
+        chatPanel.add(chatBtn, BorderLayout.CENTER);
+        tabs.add("Chatbot", chatPanel);
+
+        // build a tab when it is first shown, and again if its data changed while it was hidden
+        tabs.addChangeListener(e -> {
+            Component shown = tabs.getSelectedComponent();
+            for (LazyTab t : new LazyTab[]{marksTab, attendanceTab, announcementsTab})
+                if (t.pane == shown) t.showing();
+        });
+        marksTab.showing();
+
+        DataStore.ChangeListener onChange = this::dataChanged;
+        DataStore.addChangeListener(onChange);
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override public void windowClosed(java.awt.event.WindowEvent we) { DataStore.removeChangeListener(onChange); }
+        });
+
+        // Add everything to frame
+        if (bgLabel != null)
+            bgLabel.add(tabs, BorderLayout.CENTER);
+        else
+            add(tabs, BorderLayout.CENTER);
+
+        setVisible(true);
+    }
+
+    // called on DataStore's threads: only flag tabs here, the EDT does the rest
+    private void dataChanged(String dataset, Collection<String> regs) {
+        LazyTab tab;
+        if (DataStore.DATASET_MARKS.equals(dataset)) tab = marksTab; // ranks move when anyone's marks change
+        else if (DataStore.DATASET_ATTENDANCE.equals(dataset) && (regs.isEmpty() || regs.contains(registerNo))) tab = attendanceTab;
+        else if (DataStore.DATASET_ANNOUNCEMENTS.equals(dataset)) tab = announcementsTab;
+        else return;
+        SwingUtilities.invokeLater(tab::stale);
+    }
+
+    /** A read-only text tab whose contents are rendered off the EDT, on demand. */
+    private static final class LazyTab {
+        final JTextArea area = new JTextArea("Loading…");
+        final JScrollPane pane = new JScrollPane(area);
+        private final Supplier<String> render;
+        private boolean fresh, loading, reloadAfter;
+
+        LazyTab(Supplier<String> render) {
+            this.render = render;
+            area.setEditable(false);
+            area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+        }
+
+        // EDT only, like every method here
+        void showing() { if (!fresh) load(); }
+
+        void stale() {
+            fresh = false;
+            if (pane.isShowing()) load();
+        }
+
+        private void load() {
+            if (loading) { reloadAfter = true; return; } // a change landed mid-render: go again when it finishes
+            loading = true;
+            fresh = true;
+            new SwingWorker<String, Void>() {
+                @Override protected String doInBackground() { return render.get(); }
+                @Override protected void done() {
+                    loading = false;
+                    try { area.setText(get()); area.setCaretPosition(0); }
+                    catch (Exception ex) { ex.printStackTrace(); area.setText("Could not load this tab: " + ex.getCause()); }
+                    if (reloadAfter) { reloadAfter = false; fresh = false; if (pane.isShowing()) load(); }
+                }
+            }.execute();
+        }
+    }
+
+    // ---------- Tab contents (run on SwingWorker threads) ----------
+    private String renderMarks() {
         StringBuilder sbMarks = new StringBuilder();
         DataStore.Student sObj = DataStore.getStudentByRegister(registerNo);
         sbMarks.append("Student: ").append(sObj != null ? sObj.name : studentName)
@@ -74,82 +167,53 @@ public class StudentDashboard extends JFrame {
         else {
             for (String sub : prim) {
                 DataStore.Marks m = ia1.get(sub);
-                if (m != null)
-                    sbMarks.append(String.format("%-6s -> %3d    (%2d CT + %2d CAT)    Remark: %s\n",
-                            sub, m.total, m.concept, m.cat, DataStore.getRemarkFor(m.total)));
+                if (m != null) {
+                    MarksAnalytics.Standing st = DataStore.getStanding(registerNo, "IA1", sub); // O(log n), no class scan
+                    sbMarks.append(String.format("%-6s -> %3d    (%2d CT + %2d CAT)    %-18s Remark: %s\n",
+                            sub, m.total, m.concept, m.cat, st == null ? "" : "Rank " + st.rank + "/" + st.classSize,
+                            DataStore.getRemarkFor(m.total)));
+                }
                 else sbMarks.append(String.format("%-6s -> N/A\n", sub));
             }
         }
-        marksArea.setText(sbMarks.toString());
-        tabs.add("Internal Marks (IA1)", new JScrollPane(marksArea));
-
-        // ---------- Attendance Tab ----------
-        JTextArea attArea = new JTextArea();
-        attArea.setEditable(false);
-        attArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+        return sbMarks.toString();
+    }
 
+    private String renderAttendance() {
         DataStore.Attendance a = DataStore.getAttendance(registerNo);
-        if (a == null || a.presentPerSubject == null || a.presentPerSubject.isEmpty()) {
-            attArea.setText("No attendance record found.");
-        } else {
-            StringBuilder sb = new StringBuilder();
-            double overallTotal = 0, overallPresent = 0;
-
-            for (String subj : a.presentPerSubject.keySet()) {
-                int present = a.presentPerSubject.getOrDefault(subj, 0);
-                int total = a.totalPerSubject.getOrDefault(subj, 0);
-                double pct = total == 0 ? 0.0 : (present * 100.0 / total);
-
-                sb.append(String.format("%s:\nPresent: %d  |  Total: %d  |  Attendance: %.1f%%\n\n",
-                        subj, present, total, pct));
-
-                overallPresent += present;
-                overallTotal += total;
-            }
-
-            double overallPct = overallTotal == 0 ? 0.0 : (overallPresent * 100.0 / overallTotal);
-            sb.append(String.format("Overall Attendance: %.1f%%\n%s",
-                    overallPct,
-                    (overallPct >= 75 ? "✅ Your attendance is safe."
-                            : "⚠️ Your attendance is not safe — attend more classes.")));
+        if (a == null || a.presentPerSubject == null || a.presentPerSubject.isEmpty())
+            return "No attendance record found.";
+        StringBuilder sb = new StringBuilder();
+        double overallTotal = 0, overallPresent = 0;
 
-            attArea.setText(sb.toString());
-        }
-        tabs.add("Attendance", new JScrollPane(attArea));
+        for (String subj : a.presentPerSubject.keySet()) {
+            int present = a.presentPerSubject.getOrDefault(subj, 0);
+            int total = a.totalPerSubject.getOrDefault(subj, 0);
+            double pct = total == 0 ? 0.0 : (present * 100.0 / total);
 
-        // ---------- Announcements Tab ----------
-        JTextArea annArea = new JTextArea();
-        annArea.setEditable(false);
-        annArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
-        var anns = DataStore.getAnnouncements();
+            sb.append(String.format("%s:\nPresent: %d  |  Total: %d  |  Attendance: %.1f%%\n\n",
+                    subj, present, total, pct));
 
-        if (anns.isEmpty())
-            annArea.setText("No announcements currently.");
-        else {
-            StringBuilder asb = new StringBuilder();
-            for (String an : anns)
-                asb.append("• ").append(an).append("\n\n");
-            annArea.setText(asb.toString());
+            overallPresent += present;
+            overallTotal += total;
         }
-        tabs.add("Announcements", new JScrollPane(annArea));
-
-        // ---------- Chatbot Tab ----------
-        JPanel chatPanel = new JPanel(new BorderLayout());
-        chatPanel.setOpaque(false);
-        JButton chatBtn = new JButton("Open Chatbot");
-        chatBtn.addActionListener(e -> new StudentChatbot(registerNo, studentName));
 
-        chatPanel.add(new JLabel("Chatbot for quick queries (attendance, IA marks, announcements)"),
-                BorderLayout.NORTH);
-        chatPanel.add(chatBtn, BorderLayout.CENTER);
-        tabs.add("Chatbot", chatPanel);
-
-        // Add everything to frame
-        if (bgLabel != null)
-            bgLabel.add(tabs, BorderLayout.CENTER);
-        else
-            add(tabs, BorderLayout.CENTER);
+        double overallPct = overallTotal == 0 ? 0.0 : (overallPresent * 100.0 / overallTotal);
+        AtRiskIndex.Risk risk = AtRiskIndex.overall(registerNo, a);
+        sb.append(String.format("Overall Attendance: %.1f%%\n%s",
+                overallPct,
+                (!risk.atRisk() ? "✅ Your attendance is safe."
+                        : "⚠️ Your attendance is not safe — attend the next " + risk.classesNeeded()
+                                + " classes to reach " + AtRiskIndex.THRESHOLD + "%.")));
+        return sb.toString();
+    }
 
-        setVisible(true);
+    private String renderAnnouncements() {
+        var anns = DataStore.getAnnouncements();
+        if (anns.isEmpty()) return "No announcements currently.";
+        StringBuilder asb = new StringBuilder();
+        for (String an : anns)
+            asb.append("• ").append(an).append("\n\n");
+        return asb.toString();
     }
 }
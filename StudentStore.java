@@ -0,0 +1,28 @@
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * StudentStore: where per-student records live behind DataStore's public API.
+ * DataStore picks the backend with -Dclassconnect.store:
+ *   csv   (default) marks (packed off-heap, see MarksTable) and attendance loaded from the flat files
+ *   btree one file, classconnect.db, read through a bounded page cache (see BTreeStudentStore),
+ *         for archives that should not have to fit in the heap
+ * In remote mode (-Dclassconnect.server) no store is used; the server has its own.
+ */
+public interface StudentStore {
+    /** Name and marks, or null when the register number has no marks. */
+    DataStore.Student student(String reg);
+
+    DataStore.Marks marks(String reg, String ia, String subject);
+
+    Map<String, DataStore.Marks> marksForIA(String reg, String ia);
+
+    /** Present/total per subject, or null when the student has no attendance row. */
+    DataStore.Attendance attendance(String reg);
+
+    /** Applies a save (default totals filled in for missing subjects); the future completes when it is on disk. */
+    CompletableFuture<Void> updateAttendance(String reg, Map<String, Integer> presentMap, Map<String, Integer> totalMap);
+
+    /** Every student with marks. */
+    Set<String> registers();
+}
@@ -0,0 +1,186 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * WriteBehindQueue: one background writer for everything DataStore persists, so callers (the EDT
+ * included) only update memory and enqueue. Attendance rows are coalesced per student: a second
+ * save for a student whose previous row is still queued replaces it, and both callers' futures
+ * complete when the surviving row is on disk. A batch (a whole period) is queued as one entry, so it
+ * always goes out in a single journal group (see AttendanceJournal) and is never split between
+ * commits. The writer group-commits every commitMs: all queued
+ * rows go to the journal in one write followed by one fsync, and queued file appends
+ * (announcements.txt, emails.txt) are written and fsynced per file. A future completes only after
+ * its data is forced to disk, so a completed future means the write survives a crash.
+ * The queue is bounded (in queued entries, after coalescing); enqueue blocks while it is full.
+ */
+public class WriteBehindQueue {
+    private final AttendanceJournal journal;
+    private final long commitMs;
+    private final int capacity;
+    private final Thread writer;
+
+    // insertion order is write order; attendance keys are "row|reg", batches and file appends get unique keys
+    private LinkedHashMap<String, Entry> pending = new LinkedHashMap<>();
+    private List<CompletableFuture<Void>> inFlight = Collections.emptyList(); // the batch being committed
+    private long appendSeq, batchSeq;
+    private boolean flushNow, closed;
+
+    private static final class Entry {
+        final Map<String, Map<String, int[]>> rows; // attendance: full row per register no, else null
+        final String note;                          // attendance: journal note written with the rows, or null
+        final File file;                            // file append: target, else null
+        final String line;
+        final CompletableFuture<Void> done;
+
+        Entry(Map<String, Map<String, int[]>> rows, String note, File file, String line, CompletableFuture<Void> done) {
+            this.rows = rows;
+            this.note = note;
+            this.file = file;
+            this.line = line;
+            this.done = done;
+        }
+    }
+
+    public WriteBehindQueue(AttendanceJournal journal, long commitMs, int capacity) {
+        this.journal = journal;
+        this.commitMs = commitMs;
+        this.capacity = capacity;
+        writer = new Thread(this::run, "write-behind");
+        writer.setDaemon(true); // the shutdown hook, not the JVM, decides when pending data is flushed
+        writer.start();
+    }
+
+    /** Queues the student's full row for the journal; replaces a row of theirs that is still queued. */
+    public CompletableFuture<Void> attendance(String reg, Map<String, int[]> cells) {
+        synchronized (this) {
+            Entry old = pending.get("row|" + reg);
+            if (old != null) { // coalesce: keep the queue position, take the newer row, share the future
+                pending.put("row|" + reg, new Entry(Collections.singletonMap(reg, cells), null, null, null, old.done));
+                return old.done;
+            }
+            return enqueue("row|" + reg, new Entry(Collections.singletonMap(reg, cells), null, null, null, new CompletableFuture<>()));
+        }
+    }
+
+    /**
+     * Queues several students' full rows as one entry: they reach the journal in one write, as one
+     * group, so after a crash either all of them are there or none. Rows of these students still
+     * queued on their own are folded in (the batch holds their newer rows) and share its future.
+     */
+    public CompletableFuture<Void> attendanceBatch(Map<String, Map<String, int[]>> rows) {
+        return attendanceBatch(rows, null);
+    }
+
+    /** As attendanceBatch(rows), with a note in the same journal group (see AttendanceJournal.lastNote). */
+    public CompletableFuture<Void> attendanceBatch(Map<String, Map<String, int[]>> rows, String note) {
+        if (rows.isEmpty() && note == null) return CompletableFuture.completedFuture(null);
+        synchronized (this) {
+            Entry batch = new Entry(new LinkedHashMap<>(rows), note, null, null, new CompletableFuture<>());
+            for (String reg : rows.keySet()) {
+                Entry old = pending.remove("row|" + reg);
+                if (old != null) batch.done.whenComplete((v, ex) -> { if (ex == null) old.done.complete(null); else old.done.completeExceptionally(ex); });
+            }
+            return enqueue("batch|" + (batchSeq++), batch);
+        }
+    }
+
+    /** Queues one line to append to file. Appends are never coalesced and keep their order. */
+    public synchronized CompletableFuture<Void> append(File file, String line) {
+        return enqueue("append|" + (appendSeq++), new Entry(null, null, file, line, new CompletableFuture<>()));
+    }
+
+    /** Completes once everything queued before this call is on disk; skips the commit wait. */
+    public synchronized CompletableFuture<Void> flush() {
+        if (pending.isEmpty() && inFlight.isEmpty()) return CompletableFuture.completedFuture(null);
+        List<CompletableFuture<Void>> all = new ArrayList<>(inFlight);
+        for (Entry e : pending.values()) all.add(e.done);
+        flushNow = true;
+        notifyAll();
+        return CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /** Flushes and stops the writer; later writes fail. Used by the shutdown hook. */
+    public void close() {
+        flush().exceptionally(ex -> null).join();
+        synchronized (this) { closed = true; notifyAll(); }
+    }
+
+    public synchronized int size() { return pending.size(); }
+
+    // caller holds the monitor
+    private CompletableFuture<Void> enqueue(String key, Entry e) {
+        while (pending.size() >= capacity && !closed) {
+            try { wait(); } catch (InterruptedException ex) { Thread.currentThread().interrupt(); break; }
+        }
+        if (closed) { e.done.completeExceptionally(new IOException("write queue is closed")); return e.done; }
+        pending.put(key, e);
+        notifyAll();
+        return e.done;
+    }
+
+    // ---------------- Writer thread ----------------
+    private void run() {
+        while (true) {
+            LinkedHashMap<String, Entry> batch;
+            synchronized (this) {
+                try {
+                    while (pending.isEmpty() && !closed) wait();
+                    if (pending.isEmpty()) return; // closed and drained
+                    // group commit: let more writes arrive, unless someone is waiting on a flush
+                    long until = System.currentTimeMillis() + commitMs;
+                    for (long left = commitMs; left > 0 && !flushNow && !closed; left = until - System.currentTimeMillis()) wait(left);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                inFlight = new ArrayList<>();
+                for (Entry e : batch.values()) inFlight.add(e.done);
+                flushNow = false;
+                notifyAll(); // room for blocked producers
+            }
+            commit(batch);
+            synchronized (this) { inFlight = Collections.emptyList(); }
+        }
+    }
+
+    private void commit(LinkedHashMap<String, Entry> batch) {
+        Map<String, Map<String, int[]>> rows = new LinkedHashMap<>();
+        List<String> notes = new ArrayList<>();
+        List<CompletableFuture<Void>> rowFutures = new ArrayList<>();
+        Map<File, List<Entry>> appends = new LinkedHashMap<>();
+        for (Entry e : batch.values()) {
+            if (e.rows != null) {
+                for (Map.Entry<String, Map<String, int[]>> row : e.rows.entrySet()) {
+                    rows.remove(row.getKey()); // a later entry's row is newer; keep it in write order
+                    rows.put(row.getKey(), row.getValue());
+                }
+                if (e.note != null) notes.add(e.note);
+                rowFutures.add(e.done);
+            } else appends.computeIfAbsent(e.file, f -> new ArrayList<>()).add(e);
+        }
+        if (!rowFutures.isEmpty()) {
+            try {
+                journal.appendAll(rows, notes, true);
+                for (CompletableFuture<Void> f : rowFutures) f.complete(null);
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                for (CompletableFuture<Void> f : rowFutures) f.completeExceptionally(ex);
+            }
+        }
+        for (Map.Entry<File, List<Entry>> fe : appends.entrySet()) {
+            StringBuilder sb = new StringBuilder();
+            for (Entry e : fe.getValue()) sb.append(e.line).append(System.lineSeparator());
+            try (FileOutputStream out = new FileOutputStream(fe.getKey(), true)) {
+                out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+                out.getFD().sync();
+                for (Entry e : fe.getValue()) e.done.complete(null);
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                for (Entry e : fe.getValue()) e.done.completeExceptionally(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-threaded stress check for DataStore attendance writes.
+ * Writer threads save random synthetic students in parallel. Each writer owns two subject
+ * columns and always writes the same value to both (present == total), and readers check
+ * that no getAttendance result mixes values from two saves. At the end every cell must hold
+ * the last value its writer saved (no lost updates), and a reload from attendance.txt plus
+ * the journal must agree with memory.
+ *
+ * It writes attendance.txt / attendance.journal in the working directory, so run it from an
+ * empty scratch directory: java -cp path/to/benchmarks.jar AttendanceStressTest [writers] [saves-per-writer]
+ */
+public class AttendanceStressTest {
+    private static final int STUDENTS = 300;
+    private static final int READERS = 4;
+
+    public static void main(String[] args) throws Exception {
+        if (new File(DataStore.ATTENDANCE_FILE).exists() || new File("Internal_marks.csv").exists()) {
+            System.out.println("Refusing to run next to real data files; start it from an empty directory.");
+            return;
+        }
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int saves = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        DataStore.attendanceReady().join();
+
+        String[] regs = new String[STUDENTS];
+        for (int i = 0; i < STUDENTS; i++) regs[i] = String.format("STRESS%04d", i);
+        int[][] expected = new int[writers][STUDENTS]; // last value writer w saved for student i (0 = never)
+        AtomicLong torn = new AtomicLong(), reads = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(writers + READERS);
+        List<Future<?>> writerTasks = new ArrayList<>();
+
+        for (int w = 0; w < writers; w++) {
+            final int id = w;
+            writerTasks.add(pool.submit(() -> {
+                Random rnd = new Random(id);
+                start.await();
+                for (int n = 1; n <= saves; n++) {
+                    int i = rnd.nextInt(STUDENTS);
+                    Map<String, Integer> cells = new HashMap<>();
+                    cells.put("W" + id + "a", n);
+                    cells.put("W" + id + "b", n);
+                    DataStore.updateAttendance(regs[i], cells, cells);
+                    expected[id][i] = n;
+                }
+                return null;
+            }));
+        }
+        for (int r = 0; r < READERS; r++) {
+            final int id = r;
+            pool.submit(() -> {
+                Random rnd = new Random(1000 + id);
+                start.await();
+                while (!done) {
+                    DataStore.Attendance a = DataStore.getAttendance(regs[rnd.nextInt(STUDENTS)]);
+                    reads.incrementAndGet();
+                    if (a == null) continue;
+                    for (int w = 0; w < writers; w++) {
+                        Integer pa = a.presentPerSubject.get("W" + w + "a"), ta = a.totalPerSubject.get("W" + w + "a");
+                        Integer pb = a.presentPerSubject.get("W" + w + "b"), tb = a.totalPerSubject.get("W" + w + "b");
+                        if (pa == null && pb == null) continue;
+                        if (!Objects.equals(pa, ta) || !Objects.equals(pa, pb) || !Objects.equals(pb, tb)) torn.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : writerTasks) f.get();
+        double secs = (System.nanoTime() - t0) / 1e9;
+        done = true;
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+
+        long lost = countLost(regs, expected);
+        System.out.printf("%d writers x %d saves in %.2f s (%,.0f saves/s), %,d concurrent reads%n",
+                writers, saves, secs, writers * saves / secs, reads.get());
+        System.out.println("torn reads:  " + torn.get());
+        System.out.println("lost updates: " + lost);
+
+        DataStore.persistAttendanceFile();
+        DataStore.reloadAttendance(); // rebuilds from attendance.txt + journal; prints only if it differs
+        long lostOnDisk = countLost(regs, expected);
+        System.out.println("lost after reload from disk: " + lostOnDisk);
+        System.out.println(torn.get() == 0 && lost == 0 && lostOnDisk == 0 ? "PASS" : "FAIL");
+    }
+
+    private static volatile boolean done;
+
+    private static long countLost(String[] regs, int[][] expected) {
+        long lost = 0;
+        for (int i = 0; i < regs.length; i++) {
+            DataStore.Attendance a = DataStore.getAttendance(regs[i]);
+            for (int w = 0; w < expected.length; w++) {
+                if (expected[w][i] == 0) continue;
+                Integer got = a == null ? null : a.presentPerSubject.get("W" + w + "a");
+                if (got == null || got != expected[w][i]) lost++;
+            }
+        }
+        return lost;
+    }
+}
@@ -0,0 +1,69 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import javax.swing.*;
+
+/**
+ * Repaint-time check for the frame backgrounds: the old panel that rescales college_bg.jpeg in
+ * every paintComponent against BackgroundPanel, both painted at maximized-4K size (3840x2160)
+ * into an off-screen image. Also reports what a resize costs, since that is when BackgroundPanel
+ * pays for its one rescale. Works headless (then BackgroundPanel uses its BufferedImage path).
+ * Run from the project root with: java -cp benchmarks/target/benchmarks.jar BackgroundRepaintBenchmark [image] [repaints]
+ */
+public class BackgroundRepaintBenchmark {
+    private static final int W = 3840, H = 2160;
+
+    public static void main(String[] args) throws Exception {
+        String file = args.length > 0 ? args[0] : "college_bg.jpeg";
+        int repaints = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        BufferedImage source = ImageAssets.decode(file);
+        if (source == null) { System.out.println("Cannot read " + file); return; }
+        System.out.printf("%s: %dx%d, painting at %dx%d%s%n", file, source.getWidth(), source.getHeight(), W, H,
+                GraphicsEnvironment.isHeadless() ? " (headless)" : "");
+
+        JPanel legacy = new JPanel() {
+            final Image bg = new ImageIcon(file).getImage();
+            @Override protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                g.drawImage(bg, 0, 0, getWidth(), getHeight(), this);
+            }
+        };
+        JPanel cached = new BackgroundPanel(source);
+
+        SwingUtilities.invokeAndWait(() -> {
+            double legacyMs = 0, cachedMs = 0;
+            for (int round = 0; round < 2; round++) { // first round warms up the JIT and the image pipelines
+                legacyMs = perRepaint(legacy, repaints);
+                cachedMs = perRepaint(cached, repaints);
+            }
+            System.out.printf("legacy (scale every repaint): %8.3f ms/repaint%n", legacyMs);
+            System.out.printf("BackgroundPanel (cached):     %8.3f ms/repaint   speedup %.0fx%n", cachedMs, legacyMs / cachedMs);
+
+            // a resize forces one rescale; alternate between two sizes so every paint is a first paint
+            BufferedImage target = new BufferedImage(W, H, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = target.createGraphics();
+            int resizes = Math.max(10, repaints / 10);
+            long t0 = System.nanoTime();
+            for (int i = 0; i < resizes; i++) {
+                cached.setSize(i % 2 == 0 ? W - 1 : W, H);
+                cached.paint(g);
+            }
+            g.dispose();
+            System.out.printf("BackgroundPanel after resize: %8.3f ms/repaint%n", (System.nanoTime() - t0) / 1e6 / resizes);
+        });
+        System.exit(0);
+    }
+
+    private static double perRepaint(JPanel panel, int repaints) {
+        panel.setSize(W, H);
+        BufferedImage target = new BufferedImage(W, H, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            panel.paint(g); // not timed: BackgroundPanel scales here, as it would on the first show
+            long t0 = System.nanoTime();
+            for (int i = 0; i < repaints; i++) panel.paint(g);
+            return (System.nanoTime() - t0) / 1e6 / repaints;
+        } finally {
+            g.dispose();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+import classconnect.bench.Targets;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Bridge from the JMH benchmarks (package classconnect.bench) to the application classes,
+ * which live in the unnamed package. Same package as DataStore, so it can reach the
+ * package-private per-file readers and the compaction writer.
+ */
+public class BenchTargets implements Targets {
+    private final IntentMatcher intents = IntentMatcher.standard(DataStore.DEFAULT_SUBJECTS);
+
+    @Override public void generate(Path dir, int students, int mailsPerStudent) throws IOException {
+        new DatasetGenerator().students(students).mailsPerStudent(mailsPerStudent).announcements(students / 10 + 1).writeAll(dir);
+    }
+
+    @Override public int loadMarks(File csv) { return DataStore.readMarks(csv).registers().size(); }
+    @Override public int loadAttendance(File txt) { return DataStore.readAttendanceFile(txt).size(); }
+    @Override public int loadAnnouncements(File txt) { return DataStore.readAnnouncements(txt).size(); }
+
+    @Override public int classifyMails(File emails) {
+        List<DataStore.Email> mails = new ArrayList<>();
+        List<String> announcements = new ArrayList<>();
+        DataStore.readEmails(emails, mails, announcements);
+        return announcements.size();
+    }
+
+    @Override public List<String> registers() { return new ArrayList<>(DataStore.getAllRegisterNos()); }
+
+    @Override public List<String> names() {
+        List<String> out = new ArrayList<>();
+        for (String reg : DataStore.getAllRegisterNos()) out.add(DataStore.getStudentByRegister(reg).name);
+        return out;
+    }
+
+    @Override public Object getAttendance(String regOrName) { return DataStore.getAttendance(regOrName); }
+    @Override public Object getMarks(String reg, String ia, String subject) { return DataStore.getMarks(reg, ia, subject); }
+    @Override public List<String> getAnnouncements() { return DataStore.getAnnouncements(); }
+
+    @Override public void serveAnnouncements(File announcements, File emails) {
+        DataStore.reloadAnnouncements(announcements, emails);
+    }
+
+    @Override public Object attendanceTable(int students) {
+        AttendanceTable t = new AttendanceTable();
+        Random rnd = new Random(students);
+        for (int i = 0; i < students; i++) {
+            int ord = t.ensureStudent(DatasetGenerator.register(i));
+            for (String subj : DataStore.DEFAULT_SUBJECTS) {
+                int total = 40 + rnd.nextInt(20);
+                t.set(ord, t.ensureSubject(subj), rnd.nextInt(total + 1), total);
+            }
+        }
+        return t;
+    }
+
+    @Override public void persistAttendance(Object table, Path target) throws IOException {
+        DataStore.writeAtomically(target, DataStore.renderAttendanceSnapshot((AttendanceTable) table));
+    }
+
+    @Override public Object matchIntent(String message) { return intents.match(message); }
+
+    @Override public String answer(String reg, String message) {
+        IntentMatcher.Intent intent = intents.match(message);
+        return AnswerCache.shared().get(reg, intent, () -> intent.kind + " for " + reg);
+    }
+}
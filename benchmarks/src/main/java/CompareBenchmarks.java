@@ -0,0 +1,46 @@
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Compares two JMH JSON result files (e.g. the last release against this build) and prints
+ * the change per benchmark and parameter set. Scores are times per operation, so a higher
+ * score is slower; changes beyond the threshold are flagged and make the exit status 1.
+ * Usage: java -cp benchmarks.jar CompareBenchmarks old.json new.json [threshold-percent]
+ */
+public class CompareBenchmarks {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) { System.out.println("usage: CompareBenchmarks old.json new.json [threshold-percent]"); return; }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        Map<String, double[]> before = scores(args[0]), after = scores(args[1]);
+        int regressions = 0;
+        for (Map.Entry<String, double[]> e : after.entrySet()) {
+            double[] old = before.get(e.getKey());
+            if (old == null) { System.out.printf("%-70s %12.3f  (new)%n", e.getKey(), e.getValue()[0]); continue; }
+            double change = (e.getValue()[0] - old[0]) * 100 / old[0];
+            boolean slower = change > threshold && e.getValue()[0] - e.getValue()[1] > old[0] + old[1]; // outside both error bars
+            if (slower) regressions++;
+            System.out.printf("%-70s %12.3f -> %12.3f  %+7.1f%%%s%n", e.getKey(), old[0], e.getValue()[0], change, slower ? "  REGRESSION" : "");
+        }
+        for (String k : before.keySet()) if (!after.containsKey(k)) System.out.printf("%-70s (removed)%n", k);
+        System.out.println(regressions + " regression(s) above " + threshold + "%");
+        if (regressions > 0) System.exit(1);
+    }
+
+    // "benchmark [param=value,...] unit" -> {score, error}
+    private static Map<String, double[]> scores(String file) throws Exception {
+        Map<String, double[]> out = new LinkedHashMap<>();
+        for (Object run : Json.array(Json.parse(new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8)))) {
+            Map<String, Object> r = Json.object(run);
+            Map<String, Object> metric = Json.object(r.get("primaryMetric"));
+            String name = Json.string(r.get("benchmark"));
+            name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+            if (r.get("params") != null) name += " " + new TreeMap<>(Json.object(r.get("params")));
+            name += " " + Json.string(metric.get("scoreUnit"));
+            double error = metric.get("scoreError") instanceof Number ? ((Number) metric.get("scoreError")).doubleValue() : 0;
+            out.put(name, new double[]{((Number) metric.get("score")).doubleValue(), Double.isNaN(error) ? 0 : error});
+        }
+        return out;
+    }
+}
@@ -0,0 +1,217 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * DatasetGenerator: writes a synthetic cohort in the exact formats DataStore reads
+ * (Internal_marks.csv, attendance.txt, announcements.txt, emails.txt) for scale testing.
+ * Output is a pure function of the settings: every file draws from its own Random seeded
+ * from the seed, so the same settings always produce the same bytes.
+ * dirtyRate is the fraction of rows replaced by the kinds of damage the loaders must survive
+ * (short rows, non-numeric cells, blank and comment lines, padding, duplicates, present > total,
+ * unknown register numbers, mails without separators).
+ *
+ * Usage: java -cp benchmarks/target/benchmarks.jar DatasetGenerator <dir> [--students N] [--ias N] [--subjects N] [--seed N]
+ *                              [--dirty RATE] [--mails-per-student N] [--announcements N]
+ */
+public class DatasetGenerator {
+    // same codes as DataStore.DEFAULT_SUBJECTS; copied so generating files never starts DataStore's loaders
+    private static final String[] DEFAULT_SUBJECTS = {"DM", "DS", "DBMS", "DPCO", "OOP", "ESS"};
+    private static final String[] FIRST = {"KEVIN", "PRIYA", "ARUN", "DIVYA", "RAHUL", "SNEHA", "VIJAY", "ANITHA", "KARTHIK",
+            "MEERA", "JOHN", "FATHIMA", "SURESH", "LAKSHMI", "ANAND", "NIVETHA", "DAVID", "SWETHA", "HARISH", "JANANI"};
+    private static final String[] LAST = {"JOSE", "KUMAR", "RAJ", "DEVI", "PRAKASH", "MARY", "SINGH", "NAIR", "PETER", "BANU",
+            "MOHAN", "SELVAM", "PAUL", "RANI"};
+    private static final String[] MAIL_TOPICS = {"Hackathon registration", "Coding club meetup", "Symposium event",
+            "Project review deadline", "Last day for fee payment", "Students selected for internship"};
+    private static final String[] PLAIN_TOPICS = {"Weekly newsletter", "Library due reminder", "Canteen menu",
+            "Hostel notice", "Password reset", "Seminar recording"};
+
+    private long seed = 42;
+    private int students = 1000;
+    private int ias = 2;
+    private int subjects = DEFAULT_SUBJECTS.length;
+    private double dirtyRate;
+    private int mailsPerStudent = 1;
+    private int announcements = 50;
+
+    public DatasetGenerator seed(long seed) { this.seed = seed; return this; }
+    public DatasetGenerator students(int n) { this.students = n; return this; }
+    public DatasetGenerator ias(int n) { this.ias = n; return this; }
+    public DatasetGenerator subjects(int n) { this.subjects = n; return this; }
+    public DatasetGenerator dirtyRate(double rate) { this.dirtyRate = rate; return this; }
+    public DatasetGenerator mailsPerStudent(int n) { this.mailsPerStudent = n; return this; }
+    public DatasetGenerator announcements(int n) { this.announcements = n; return this; }
+
+    /** Register numbers have the same 12-digit shape as the real ones. */
+    public static String register(int i) { return Long.toString(311124000000L + i); }
+
+    /** The configured subjects (the six real ones first, then SUB07, SUB08, ...). */
+    public List<String> subjectCodes() {
+        List<String> out = new ArrayList<>();
+        for (int s = 0; s < subjects; s++)
+            out.add(s < DEFAULT_SUBJECTS.length ? DEFAULT_SUBJECTS[s] : String.format("SUB%02d", s + 1));
+        return out;
+    }
+
+    /** Writes all four files into dir and returns how many dirty rows went into each. */
+    public Map<String, Integer> writeAll(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Map<String, Integer> dirty = new LinkedHashMap<>();
+        dirty.put(DataStore.MARKS_CSV, writeMarks(dir.resolve(DataStore.MARKS_CSV)));
+        dirty.put(DataStore.ATTENDANCE_FILE, writeAttendance(dir.resolve(DataStore.ATTENDANCE_FILE)));
+        dirty.put(DataStore.ANNOUNCEMENTS_FILE, writeAnnouncements(dir.resolve(DataStore.ANNOUNCEMENTS_FILE)));
+        dirty.put(DataStore.EMAILS_FILE, writeEmails(dir.resolve(DataStore.EMAILS_FILE)));
+        return dirty;
+    }
+
+    // ---------------- Internal_marks.csv ----------------
+    public int writeMarks(Path file) throws IOException {
+        Random rnd = new Random(seed * 31 + 1);
+        List<String> subj = subjectCodes();
+        int dirty = 0;
+        String previous = null;
+        try (PrintWriter pw = writer(file)) {
+            pw.println("RegisterNo,Name,IA,Subject,CT1,CAT1,Total");
+            for (int i = 0; i < students; i++) {
+                String reg = register(i), name = name(rnd);
+                for (int ia = 1; ia <= ias; ia++) {
+                    for (String s : subj) {
+                        int ct = rnd.nextInt(21), cat = rnd.nextInt(61);
+                        String row = reg + "," + name + ",IA" + ia + "," + s + "," + ct + "," + cat + "," + Math.min(100, ct + cat + rnd.nextInt(20));
+                        if (isDirty(rnd)) {
+                            dirty++;
+                            switch (rnd.nextInt(6)) {
+                                case 0: row = row.substring(0, row.lastIndexOf(',')); break;         // short row
+                                case 1: row = reg + "," + name + ",IA" + ia + "," + s + ",ab,," + cat; break; // non-numeric cells
+                                case 2: pw.println(); break;                                             // blank line
+                                case 3: pw.println("#" + s.toLowerCase(Locale.ROOT)); break;            // comment line
+                                case 4: row = " " + row.replace(",", " , ") + " "; break;              // padded fields
+                                default: if (previous != null) pw.println(previous);                    // duplicate row
+                            }
+                        }
+                        pw.println(row);
+                        previous = row;
+                    }
+                }
+            }
+        }
+        return dirty;
+    }
+
+    // ---------------- attendance.txt ----------------
+    public int writeAttendance(Path file) throws IOException {
+        Random rnd = new Random(seed * 31 + 2);
+        List<String> subj = subjectCodes();
+        int dirty = 0;
+        try (PrintWriter pw = writer(file)) {
+            StringBuilder header = new StringBuilder("RegisterNo");
+            for (String s : subj) header.append(',').append(s).append("_Present,").append(s).append("_Total");
+            pw.println(header);
+            StringBuilder row = new StringBuilder();
+            for (int i = 0; i < students; i++) {
+                row.setLength(0);
+                row.append(register(i));
+                boolean bad = isDirty(rnd);
+                int kind = bad ? rnd.nextInt(5) : -1;
+                for (int s = 0; s < subj.size(); s++) {
+                    int total = 20 + rnd.nextInt(40);
+                    int present = total - rnd.nextInt(total / 2 + 1);
+                    if (kind == 2 && s == 0) present = total + 1 + rnd.nextInt(5);     // present > total
+                    row.append(',').append(kind == 1 && s == 0 ? "x" : String.valueOf(present)).append(',').append(total);
+                }
+                if (bad) {
+                    dirty++;
+                    if (kind == 0) row.setLength(row.indexOf(","));                   // no values
+                    else if (kind == 3) { pw.println(); }                               // blank line
+                    else if (kind == 4) row.replace(0, row.indexOf(","), register(students + 1 + i)); // not in marks
+                }
+                pw.println(row);
+            }
+        }
+        return dirty;
+    }
+
+    // ---------------- announcements.txt ----------------
+    public int writeAnnouncements(Path file) throws IOException {
+        Random rnd = new Random(seed * 31 + 3);
+        int dirty = 0;
+        try (PrintWriter pw = writer(file)) {
+            for (int i = 0; i < announcements; i++) {
+                if (isDirty(rnd)) {
+                    dirty++;
+                    if (rnd.nextBoolean()) pw.println();
+                    else { pw.println("📢 " + "Very long notice ".repeat(200)); continue; }
+                }
+                pw.println("📢 Announcement " + (i + 1) + ": " + MAIL_TOPICS[rnd.nextInt(MAIL_TOPICS.length)].toLowerCase(Locale.ROOT)
+                        + " in block " + (char) ('A' + rnd.nextInt(6)));
+            }
+        }
+        return dirty;
+    }
+
+    // ---------------- emails.txt ----------------
+    /** One mail in five is announcement-worthy under the default classconnect.mailKeywords. */
+    public int writeEmails(Path file) throws IOException {
+        Random rnd = new Random(seed * 31 + 4);
+        int dirty = 0;
+        long mails = (long) students * mailsPerStudent;
+        try (PrintWriter pw = writer(file)) {
+            for (long i = 0; i < mails; i++) {
+                String subject = rnd.nextInt(5) == 0 ? MAIL_TOPICS[rnd.nextInt(MAIL_TOPICS.length)] : PLAIN_TOPICS[rnd.nextInt(PLAIN_TOPICS.length)];
+                String date = String.format("2025-%02d-%02d", 1 + rnd.nextInt(12), 1 + rnd.nextInt(28));
+                String body = "Dear students, details for item " + i + " are attached. Reply to the class advisor with questions.";
+                if (isDirty(rnd)) {
+                    dirty++;
+                    switch (rnd.nextInt(3)) {
+                        case 0: pw.println(subject + " " + body); continue;  // no separators
+                        case 1: pw.println("|" + body + "|" + date); continue; // empty subject
+                        default: pw.println();                                  // blank line
+                    }
+                }
+                pw.println(subject + " #" + i + "|" + body + "|" + date);
+            }
+        }
+        return dirty;
+    }
+
+    // ---------------- Helpers ----------------
+    private boolean isDirty(Random rnd) { return dirtyRate > 0 && rnd.nextDouble() < dirtyRate; }
+
+    private static String name(Random rnd) {
+        return FIRST[rnd.nextInt(FIRST.length)] + " " + LAST[rnd.nextInt(LAST.length)] + " " + (char) ('A' + rnd.nextInt(26));
+    }
+
+    private static PrintWriter writer(Path file) throws IOException {
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), 1 << 16));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args[0].startsWith("--")) {
+            System.out.println("usage: java -cp benchmarks.jar DatasetGenerator <dir> [--students N] [--ias N] [--subjects N] [--seed N]"
+                    + " [--dirty RATE] [--mails-per-student N] [--announcements N]");
+            return;
+        }
+        DatasetGenerator gen = new DatasetGenerator();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            String v = args[i + 1];
+            switch (args[i]) {
+                case "--students": gen.students(Integer.parseInt(v)); break;
+                case "--ias": gen.ias(Integer.parseInt(v)); break;
+                case "--subjects": gen.subjects(Integer.parseInt(v)); break;
+                case "--seed": gen.seed(Long.parseLong(v)); break;
+                case "--dirty": gen.dirtyRate(Double.parseDouble(v)); break;
+                case "--mails-per-student": gen.mailsPerStudent(Integer.parseInt(v)); break;
+                case "--announcements": gen.announcements(Integer.parseInt(v)); break;
+                default: System.out.println("Unknown option " + args[i]); return;
+            }
+        }
+        Path dir = Paths.get(args[0]);
+        long t0 = System.nanoTime();
+        Map<String, Integer> dirty = gen.writeAll(dir);
+        System.out.printf("Wrote %d students x %d IAs x %d subjects to %s in %d ms%n",
+                gen.students, gen.ias, gen.subjects, dir.toAbsolutePath(), (System.nanoTime() - t0) / 1_000_000);
+        for (Map.Entry<String, Integer> e : dirty.entrySet())
+            System.out.printf("  %-20s %,12d bytes, %,d dirty rows%n", e.getKey(), Files.size(dir.resolve(e.getKey())), e.getValue());
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.*;
+
+/**
+ * Throughput check for the chatbot intent matcher: queries per second for IntentMatcher
+ * against the old lowercase + contains + regex chain, over a fixed mix of messages.
+ * Run with: java -cp benchmarks/target/benchmarks.jar IntentMatcherBenchmark [seconds-per-run]
+ */
+public class IntentMatcherBenchmark {
+    private static final String[] QUERIES = {
+            "IA1 DBMS", "ia 2 dpco marks please", "Is my attendance safe?", "Announcements",
+            "hi", "hello there", "is social studies on today", "show me the latest announcement",
+            "my OOP internals for IA2", "am I safe in ESS", "random text with no intent at all",
+            "Hey! how many classes have I been absent", "DS", "ia2 ds", "tell me something",
+    };
+    private static final String[] SUBJECTS = DataStore.DEFAULT_SUBJECTS;
+
+    public static void main(String[] args) {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2;
+        IntentMatcher matcher = IntentMatcher.standard(SUBJECTS);
+
+        for (String q : QUERIES) System.out.printf("%-45s legacy=%-14s matcher=%s%n", q, legacy(q), matcher.match(q));
+        System.out.println();
+
+        for (int round = 0; round < 2; round++) { // first round warms up the JIT
+            double legacyQps = run("legacy", seconds, q -> legacy(q).length());
+            double matcherQps = run("matcher", seconds, q -> matcher.match(q).tokens);
+            if (round == 1) System.out.printf("speedup: %.1fx%n", matcherQps / legacyQps);
+        }
+    }
+
+    private interface Classifier { int apply(String q); }
+
+    private static double run(String label, double seconds, Classifier c) {
+        long deadline = System.nanoTime() + (long) (seconds * 1e9), start = System.nanoTime();
+        long done = 0, sink = 0;
+        while (System.nanoTime() < deadline) {
+            for (String q : QUERIES) sink += c.apply(q);
+            done += QUERIES.length;
+        }
+        double qps = done / ((System.nanoTime() - start) / 1e9);
+        System.out.printf("%-8s %,14.0f queries/s   (sink %d)%n", label, qps, sink & 1);
+        return qps;
+    }
+
+    /** The routing StudentChatbot.process used before IntentMatcher, kept for comparison. */
+    private static String legacy(String q) {
+        String ql = q.toLowerCase();
+        if (ql.contains("attendance") || ql.contains("safe")) return "ATTENDANCE";
+        if (ql.contains("ia")) {
+            String ia = ql.contains("ia2") ? "IA2" : "IA1";
+            for (String s : SUBJECTS) if (ql.contains(s.toLowerCase())) return "MARKS " + ia + " " + s;
+            return "MARKS " + ia;
+        }
+        if (ql.contains("announ")) return "ANNOUNCEMENTS";
+        if (ql.matches(".*\\b(hi|hello|hey)\\b.*")) return "GREETING";
+        return "UNKNOWN";
+    }
+}
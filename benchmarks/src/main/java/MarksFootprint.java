@@ -0,0 +1,113 @@
+import java.io.*;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Heap-footprint check for the marks: the old Student -> IA -> subject -> Marks maps against
+ * MarksTable, both loaded from the same generated Internal_marks.csv (100k students by default,
+ * with a little dirt so duplicate and broken rows are exercised). Reports retained heap after a
+ * full GC, the table's off-heap bytes, load time and random getMarks lookups, and checks that
+ * both hold the same marks for every student.
+ * Run from an empty directory with: java -Xmx1g -cp path/to/benchmarks.jar MarksFootprint [students] [ias]
+ */
+public class MarksFootprint {
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int ias = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        Path dir = Files.createTempDirectory("marks-footprint");
+        File csv = dir.resolve(DataStore.MARKS_CSV).toFile();
+        DatasetGenerator gen = new DatasetGenerator().students(students).ias(ias).dirtyRate(0.01);
+        gen.writeMarks(csv.toPath());
+        System.out.printf("%,d students x %d IAs x %d subjects, %,d bytes of CSV%n",
+                students, ias, gen.subjectCodes().size(), csv.length());
+
+        DataStore.getAllRegisterNos(); // start DataStore (empty here) so its own setup is not counted below
+        long base = usedHeap();
+        long t0 = System.nanoTime();
+        Map<String, DataStore.Student> maps = legacyLoad(csv);
+        long mapsMs = (System.nanoTime() - t0) / 1_000_000;
+        long mapsHeap = usedHeap() - base;
+
+        base = usedHeap();
+        long direct0 = directBytes();
+        t0 = System.nanoTime();
+        MarksTable table = DataStore.readMarks(csv).table; // the NameIndex built alongside is dropped here
+        long tableMs = (System.nanoTime() - t0) / 1_000_000;
+        long tableHeap = usedHeap() - base, tableDirect = directBytes() - direct0;
+
+        System.out.printf("nested maps:  %,12d bytes heap                        %,6d ms load%n", mapsHeap, mapsMs);
+        System.out.printf("MarksTable:   %,12d bytes heap + %,12d off-heap  %,6d ms load  (%,d rows; direct pool grew %,d)%n",
+                tableHeap, table.offHeapBytes(), tableMs, table.rows(), tableDirect);
+        System.out.printf("heap per student: %.0f -> %.0f bytes; heap + off-heap: %.0f bytes%n",
+                mapsHeap / (double) students, tableHeap / (double) students,
+                (tableHeap + table.offHeapBytes()) / (double) students);
+
+        int mismatches = 0;
+        for (DataStore.Student s : maps.values()) {
+            int ord = table.find(s.registerNo);
+            DataStore.Student t = ord < 0 ? null : table.student(ord);
+            if (t == null || !s.iaMarks.equals(t.iaMarks) || !Objects.equals(s.name, t.name)) mismatches++;
+        }
+        if (table.size() != maps.size()) mismatches++;
+        System.out.println(mismatches == 0 ? "contents match for every student" : mismatches + " students differ");
+
+        List<String> regs = new ArrayList<>(maps.keySet()), subjects = gen.subjectCodes();
+        for (int round = 0; round < 2; round++) { // first round warms up the JIT
+            Random rnd = new Random(7);
+            long hits = 0;
+            t0 = System.nanoTime();
+            for (int i = 0; i < 2_000_000; i++) {
+                DataStore.Student s = maps.get(regs.get(rnd.nextInt(regs.size())));
+                Map<String, DataStore.Marks> sub = s.iaMarks.get("IA" + (1 + rnd.nextInt(ias)));
+                if (sub != null && sub.get(subjects.get(rnd.nextInt(subjects.size()))) != null) hits++;
+            }
+            double mapsNs = (System.nanoTime() - t0) / 2e6;
+            rnd = new Random(7);
+            t0 = System.nanoTime();
+            for (int i = 0; i < 2_000_000; i++) {
+                int ord = table.find(regs.get(rnd.nextInt(regs.size())));
+                if (table.marks(ord, "IA" + (1 + rnd.nextInt(ias)), subjects.get(rnd.nextInt(subjects.size()))) != null) hits--;
+            }
+            double tableNs = (System.nanoTime() - t0) / 2e6;
+            if (round == 1) System.out.printf("getMarks lookup: maps %.0f ns, table %.0f ns%s%n", mapsNs, tableNs,
+                    hits == 0 ? "" : " (results differ!)");
+        }
+
+        for (File f : dir.toFile().listFiles()) f.delete();
+        dir.toFile().delete();
+    }
+
+    // what DataStore.readMarks built before MarksTable
+    private static Map<String, DataStore.Student> legacyLoad(File f) throws IOException {
+        Map<String, DataStore.Student> students = new LinkedHashMap<>();
+        try (CsvReader csv = CsvReader.open(f, ',')) {
+            boolean headerSeen = false;
+            while (csv.next()) {
+                if (csv.isBlank() || csv.isComment()) continue;
+                if (!headerSeen && csv.fieldEquals(0, "RegisterNo")) { headerSeen = true; continue; }
+                if (csv.fieldCount() < 7) continue;
+                String reg = csv.string(0), name = csv.string(1), ia = csv.pooled(2), subject = csv.pooled(3);
+                DataStore.Student s = students.get(reg);
+                if (s == null) { s = new DataStore.Student(reg, name); students.put(reg, s); }
+                if (s.name == null || s.name.isEmpty()) s.name = name;
+                s.iaMarks.computeIfAbsent(ia, k -> new HashMap<>())
+                        .put(subject, new DataStore.Marks(csv.intField(4, 0), csv.intField(5, 0), csv.intField(6, 0)));
+            }
+        }
+        return students;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) { System.gc(); Thread.sleep(50); }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static long directBytes() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class))
+            if (pool.getName().equals("direct")) return pool.getMemoryUsed();
+        return -1;
+    }
+}
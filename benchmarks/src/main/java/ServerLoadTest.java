@@ -0,0 +1,91 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load check for DataStoreServer: starts the server in-process on a free port and runs many
+ * concurrent student sessions against it: a login, then per round a fresh login and marks,
+ * attendance and announcements read with the first login's token.
+ * Reports requests/s, latency percentiles and failures. Reads the data files in the working
+ * directory; writes nothing.
+ * Usage (from the project root): java -cp benchmarks/target/benchmarks.jar ServerLoadTest [sessions] [rounds-per-session]
+ */
+public class ServerLoadTest {
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        DataStore.allReady().join();
+        List<String> regs = new ArrayList<>(DataStore.getAllRegisterNos());
+        if (regs.isEmpty()) { System.out.println("No students loaded; run it next to Internal_marks.csv."); return; }
+        DataStoreServer server = new DataStoreServer(0);
+        server.start();
+        String base = "http://localhost:" + server.port();
+
+        HttpClient http = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(8, DataStore.daemonThreads("load-client"))).build();
+        long[] latencies = new long[sessions * (rounds * 4 + 1)];
+        AtomicLong next = new AtomicLong(), failures = new AtomicLong();
+
+        long t0 = System.nanoTime();
+        List<CompletableFuture<Void>> all = new ArrayList<>();
+        for (int s = 0; s < sessions; s++) {
+            String reg = regs.get(s % regs.size());
+            String login = "{\"reg\":\"" + reg + "\",\"password\":\"" + reg.substring(reg.length() - 4) + "\"}";
+            HttpRequest first = HttpRequest.newBuilder(URI.create(base + "/api/login/student")).POST(HttpRequest.BodyPublishers.ofString(login)).build();
+            all.add(timed(http, first, latencies, next, failures).thenCompose(res -> {
+                String token = res == null ? "" : Json.string(Json.object(Json.parse(res.body())).get("token"));
+                List<HttpRequest> script = new ArrayList<>();
+                for (int r = 0; r < rounds; r++) {
+                    script.add(first);
+                    script.add(get(base + "/api/students/" + reg, token));
+                    script.add(get(base + "/api/attendance/" + reg, token));
+                    script.add(get(base + "/api/announcements", token));
+                }
+                return run(http, script, 0, latencies, next, failures);
+            }));
+        }
+        CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0])).join();
+        double secs = (System.nanoTime() - t0) / 1e9;
+        server.stop();
+
+        int n = (int) next.get();
+        long[] done = Arrays.copyOf(latencies, n);
+        Arrays.sort(done);
+        System.out.printf("%d sessions x %d rounds: %d requests in %.2f s = %,.0f req/s, failures %d%n",
+                sessions, rounds, n, secs, n / secs, failures.get());
+        System.out.printf("latency ms  p50 %.1f  p90 %.1f  p99 %.1f  max %.1f%n",
+                pct(done, 50), pct(done, 90), pct(done, 99), done.length == 0 ? 0 : done[done.length - 1] / 1e6);
+    }
+
+    // runs one session's requests back to back, like a user clicking through the dashboard
+    private static CompletableFuture<Void> run(HttpClient http, List<HttpRequest> script, int i, long[] latencies,
+                                               AtomicLong next, AtomicLong failures) {
+        if (i == script.size()) return CompletableFuture.completedFuture(null);
+        return timed(http, script.get(i), latencies, next, failures)
+                .thenCompose(x -> run(http, script, i + 1, latencies, next, failures));
+    }
+
+    // sends one request and records its latency; completes with the response, or null when it failed
+    private static CompletableFuture<HttpResponse<String>> timed(HttpClient http, HttpRequest req, long[] latencies,
+                                                                 AtomicLong next, AtomicLong failures) {
+        long start = System.nanoTime();
+        return http.sendAsync(req, HttpResponse.BodyHandlers.ofString())
+                .handle((res, err) -> {
+                    latencies[(int) next.getAndIncrement()] = System.nanoTime() - start;
+                    if (err != null || res.statusCode() != 200) { failures.incrementAndGet(); return null; }
+                    return res;
+                });
+    }
+
+    private static HttpRequest get(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url)).header("Authorization", "Bearer " + token).build();
+    }
+
+    private static double pct(long[] sorted, int p) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, sorted.length * p / 100)] / 1e6;
+    }
+}
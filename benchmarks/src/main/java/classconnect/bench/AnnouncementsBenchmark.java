@@ -0,0 +1,51 @@
+package classconnect.bench;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Announcements with a generated mail folder behind them (1000 students): the per-call read
+ * the portals make, and the reload that rebuilds the list when the files change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnouncementsBenchmark {
+    private static final int STUDENTS = 1000;
+
+    @Param({"1", "10", "100"})
+    public int mailsPerStudent;
+
+    private Targets targets;
+    private Path dir;
+    private File announcements, emails;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        targets = Targets.load();
+        dir = SyntheticFiles.directory("announcements");
+        targets.generate(dir, STUDENTS, mailsPerStudent);
+        announcements = dir.resolve("announcements.txt").toFile();
+        emails = dir.resolve("emails.txt").toFile();
+        targets.serveAnnouncements(announcements, emails);
+        List<String> view = targets.getAnnouncements();
+        if (view.size() <= STUDENTS / 10) throw new IllegalStateException("generated mails were not loaded (" + view.size() + " announcements)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception { SyntheticFiles.deleteRecursively(dir); }
+
+    @Benchmark public List<String> announcements() { return targets.getAnnouncements(); }
+
+    @Benchmark @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<String> reload() {
+        targets.serveAnnouncements(announcements, emails);
+        return targets.getAnnouncements();
+    }
+}
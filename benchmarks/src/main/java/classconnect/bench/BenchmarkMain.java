@@ -0,0 +1,21 @@
+package classconnect.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar: the standard JMH command line, but results are written as JSON
+ * to jmh-result.json unless -rf / -rff say otherwise. Keep one file per release and compare
+ * them with CompareBenchmarks.
+ */
+public final class BenchmarkMain {
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        List<String> a = new ArrayList<>(Arrays.asList(args));
+        if (!a.contains("-rf")) { a.add("-rf"); a.add("json"); }
+        if (!a.contains("-rff")) { a.add("-rff"); a.add("jmh-result.json"); }
+        org.openjdk.jmh.Main.main(a.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,33 @@
+package classconnect.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/** Chatbot message routing (IntentMatcher) and a cached answer lookup, per message. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatbotBenchmark {
+    private static final String[] MESSAGES = {
+            "IA1 DBMS", "ia 2 dpco marks please", "Is my attendance safe?", "Announcements", "hello there",
+            "is social studies on today", "my OOP internals for IA2", "random text with no intent at all",
+    };
+
+    private Targets targets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() { targets = Targets.load(); }
+
+    private String nextMessage() {
+        String m = MESSAGES[next++];
+        if (next == MESSAGES.length) next = 0;
+        return m;
+    }
+
+    @Benchmark public Object routeIntent() { return targets.matchIntent(nextMessage()); }
+    @Benchmark public String cachedAnswer() { return targets.answer("311124000007", nextMessage()); }
+}
@@ -0,0 +1,41 @@
+package classconnect.bench;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/** Time to parse each data file from scratch, by class size (mails: 10 per student). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int students;
+
+    private Targets targets;
+    private Path dir;
+    private File marks, attendance, announcements, emails;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        targets = Targets.load();
+        dir = SyntheticFiles.directory("load");
+        targets.generate(dir, students, 10);
+        marks = dir.resolve("Internal_marks.csv").toFile();
+        attendance = dir.resolve("attendance.txt").toFile();
+        announcements = dir.resolve("announcements.txt").toFile();
+        emails = dir.resolve("emails.txt").toFile();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception { SyntheticFiles.deleteRecursively(dir); }
+
+    @Benchmark public int marks() { return targets.loadMarks(marks); }
+    @Benchmark public int attendance() { return targets.loadAttendance(attendance); }
+    @Benchmark public int announcements() { return targets.loadAnnouncements(announcements); }
+    @Benchmark public int emails() { return targets.classifyMails(emails); }
+}
@@ -0,0 +1,35 @@
+package classconnect.bench;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/** Latency of an attendance.txt rewrite (render + temp file + atomic rename) by class size. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int students;
+
+    private Targets targets;
+    private Object table;
+    private Path dir, target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        targets = Targets.load();
+        table = targets.attendanceTable(students);
+        dir = SyntheticFiles.directory("persist");
+        target = dir.resolve("attendance.txt");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception { SyntheticFiles.deleteRecursively(dir); }
+
+    @Benchmark
+    public void persistAttendanceFile() throws Exception { targets.persistAttendance(table, target); }
+}
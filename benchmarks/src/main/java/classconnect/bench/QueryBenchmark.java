@@ -0,0 +1,42 @@
+package classconnect.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Per-call cost of the read paths the dashboards use, against the live store
+ * (announcements, which depend on the mail count, are in AnnouncementsBenchmark).
+ * The store loads the data files in the working directory, so run from the project root
+ * (or any copy of the data files). Nothing is written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+    private Targets targets;
+    private String[] registers, names;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        targets = Targets.load();
+        List<String> regs = targets.registers();
+        if (regs.isEmpty()) throw new IllegalStateException("no students loaded; run from a directory with Internal_marks.csv");
+        registers = regs.toArray(new String[0]);
+        names = targets.names().toArray(new String[0]);
+    }
+
+    private int nextIndex() {
+        int i = next++;
+        if (next == registers.length) next = 0;
+        return i;
+    }
+
+    @Benchmark public Object attendanceByRegister() { return targets.getAttendance(registers[nextIndex()]); }
+    @Benchmark public Object attendanceByName() { return targets.getAttendance(names[nextIndex()]); }
+    @Benchmark public Object marks() { return targets.getMarks(registers[nextIndex()], "IA1", "DBMS"); }
+}
@@ -0,0 +1,20 @@
+package classconnect.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+
+/** Scratch directories for generated data files (see Targets.generate). */
+final class SyntheticFiles {
+    private SyntheticFiles() {}
+
+    static Path directory(String prefix) throws IOException { return Files.createTempDirectory("classconnect-" + prefix); }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) return;
+        try (var paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
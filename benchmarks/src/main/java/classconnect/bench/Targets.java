@@ -0,0 +1,47 @@
+package classconnect.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The operations the benchmarks measure. The application lives in the unnamed package, which
+ * named packages cannot import and JMH will not generate code for, so the benchmarks call it
+ * through this interface; the only implementation is the top-level BenchTargets class.
+ * Application types are passed around as Object and only ever handed to a Blackhole.
+ */
+public interface Targets {
+    // ---- data files (DatasetGenerator, fixed seed) ----
+    void generate(Path dir, int students, int mailsPerStudent) throws IOException;
+
+    // ---- parsing one data file from scratch ----
+    int loadMarks(File csv);
+    int loadAttendance(File txt);
+    int loadAnnouncements(File txt);
+    int classifyMails(File emails);
+
+    // ---- queries against the live store, loaded from the working directory ----
+    List<String> registers();
+    List<String> names();
+    Object getAttendance(String regOrName);
+    Object getMarks(String reg, String ia, String subject);
+    List<String> getAnnouncements();
+    void serveAnnouncements(File announcements, File emails);
+
+    // ---- compaction ----
+    Object attendanceTable(int students);
+    void persistAttendance(Object table, Path target) throws IOException;
+
+    // ---- chatbot ----
+    Object matchIntent(String message);
+    String answer(String reg, String message);
+
+    static Targets load() {
+        try {
+            return (Targets) Class.forName("BenchTargets").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("BenchTargets missing from the benchmark jar", ex);
+        }
+    }
+}